@@ -17,17 +17,25 @@
  */
 package org.azkfw.business.test;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import javax.sql.DataSource;
-
-import org.apache.commons.dbcp.BasicDataSourceFactory;
+import org.azkfw.business.test.annotation.ConnectionPool;
 import org.azkfw.database.definition.model.DatabaseModel;
-import org.azkfw.database.definition.model.TableModel;
 import org.azkfw.database.definition.parser.PostgreSQLDefinitionParser;
 import org.azkfw.test.AbstractPersistenceTestCase;
 
@@ -40,40 +48,180 @@ import org.azkfw.test.AbstractPersistenceTestCase;
  */
 public abstract class AbstractDatabaseTestCase extends AbstractPersistenceTestCase {
 
-	private static ConnectionFactory factory;
-	private Set<Connection> connections;
+	private static final Object LOCK = new Object();
+
+	/** コネクションファクトリの切り替え中にコネクションを取得しないためのロック */
+	private static final ReadWriteLock FACTORY_LOCK = new ReentrantReadWriteLock();
+
+	private static volatile ConnectionFactory factory;
+	private static volatile Properties factoryProperties;
+	private Map<Connection, ConnectionLease> connections;
+
+	private Connection sharedConnection;
+	private Connection sharedConnectionProxy;
+
+	private static volatile DatabaseModel DATABASE_MODEL;
+	private static volatile SchemaMetadata SCHEMA_METADATA;
+
+	/** 実行中のテスト(静的メソッドからコネクションを取得するため) */
+	private static final ThreadLocal<AbstractDatabaseTestCase> CURRENT_TEST = new ThreadLocal<AbstractDatabaseTestCase>();
+
+	private static final Set<String> WORKER_SCHEMAS = Collections.synchronizedSet(new HashSet<String>());
+	private String workerSchema;
 
-	private static DatabaseModel DATABASE_MODEL;
+	private static final List<ShutdownTask> SHUTDOWN_TASKS = new ArrayList<ShutdownTask>();
+	private static final List<String> SHUTDOWN_SCHEMAS = new ArrayList<String>();
+	private static Thread SHUTDOWN_HOOK;
 
 	@Override
 	public void setUp() {
 		super.setUp();
 
 		if (null == factory) {
+			lockConnectionFactory();
 			try {
-				factory = ConnectionFactory.getInstance(getDatasourceProperties());
+				if (null == factory) {
+					factoryProperties = getDatasourceProperties();
+					factory = createConnectionFactory(factoryProperties);
+					info(String.format("Connection pool statistics.[%s]", factory.getStatistics()));
+				}
 			} catch (Exception ex) {
 				ex.printStackTrace();
 				fail("Database error.");
+			} finally {
+				unlockConnectionFactory();
+			}
+		} else {
+			ConnectionPool cp = this.getClass().getAnnotation(ConnectionPool.class);
+			ConnectionFactory f = factory;
+			if (null != cp && DBCPConnectionFactory.class != cp.factory() && null != f && cp.factory() != f.getClass()) {
+				fail(String.format("Connection pool already created by another test class.[%s, %s]", cp.factory().getName(), f.getClass()
+						.getName()));
 			}
 		}
 
-		connections = new HashSet<Connection>();
+		connections = new LinkedHashMap<Connection, ConnectionLease>();
+		CURRENT_TEST.set(this);
 
+		if (null == SCHEMA_METADATA) {
+			synchronized (LOCK) {
+				if (null == SCHEMA_METADATA) {
+					Connection connection = null;
+					try {
+						connection = getConnection();
+						SCHEMA_METADATA = SchemaMetadata.load(connection);
+						debug(String.format("Schema metadata.[%s, %d tables]", SCHEMA_METADATA.getFingerprint(), SCHEMA_METADATA.getTableNames()
+								.size()));
+					} catch (SQLException ex) {
+						ex.printStackTrace();
+						fail("Database error.");
+					} finally {
+						releaseConnection(connection);
+					}
+				}
+			}
+		}
+
+		workerSchema = null;
+		if (WorkerSchemaSupport.isEnabled()) {
+			String schema = WorkerSchemaSupport.getSchema();
+			if (!WORKER_SCHEMAS.contains(schema)) {
+				createWorkerSchema(schema);
+			}
+			workerSchema = schema;
+		}
+	}
+
+	/**
+	 * データベース定義を取得する。
+	 * <p>
+	 * カタログ全体を解析するため、初回呼び出し時に時間がかかる。
+	 * </p>
+	 * 
+	 * @return データベース定義
+	 */
+	protected final DatabaseModel getDatabaseModel() {
 		if (null == DATABASE_MODEL) {
+			synchronized (LOCK) {
+				if (null == DATABASE_MODEL) {
+					Connection connection = null;
+					try {
+						connection = getConnection();
+
+						PostgreSQLDefinitionParser parser = new PostgreSQLDefinitionParser();
+						DATABASE_MODEL = parser.parse(connection);
+					} catch (SQLException ex) {
+						ex.printStackTrace();
+						fail("Database error.");
+					} finally {
+						releaseConnection(connection);
+					}
+				}
+			}
+		}
+		return DATABASE_MODEL;
+	}
+
+	/**
+	 * テーブルの主キーのフィールド名を取得する。
+	 * <p>
+	 * 主キーはテーブル毎に初めて参照された時に、実行中のテストの{@link #getConnection()}で読み込む。
+	 * テーブル名はスキーマ名で修飾できる。
+	 * </p>
+	 * 
+	 * @param table テーブル名
+	 * @return 主キーのフィールド名。主キーがない場合、<code>null</code>
+	 */
+	protected static List<String> getPrimaryKeyNames(final String table) {
+		SchemaMetadata metadata = SCHEMA_METADATA;
+		if (null == metadata || null == table) {
+			return null;
+		}
+		if (!metadata.isPrimaryKeyLoaded(table)) {
+			AbstractDatabaseTestCase test = CURRENT_TEST.get();
+			if (null == test) {
+				fail(String.format("Primary key must be loaded from the test thread.[%s]", table));
+			}
+			Connection connection = null;
+			try {
+				connection = test.getConnection();
+				metadata.loadPrimaryKey(connection, table);
+			} catch (SQLException ex) {
+				ex.printStackTrace();
+				fail("Database error.");
+			} finally {
+				test.releaseConnection(connection);
+			}
+		}
+		return metadata.getPrimaryKeyNames(table);
+	}
+
+	private void createWorkerSchema(final String schema) {
+		synchronized (LOCK) {
+			if (WORKER_SCHEMAS.contains(schema)) {
+				return;
+			}
 			Connection connection = null;
 			try {
 				connection = getConnection();
 
-				PostgreSQLDefinitionParser parser = new PostgreSQLDefinitionParser();
-				DATABASE_MODEL = parser.parse(connection);
+				List<String> names = SCHEMA_METADATA.getTableNames();
+				WorkerSchemaSupport.clone(connection, schema, names);
+				connection.commit();
 
-				for (TableModel table : DATABASE_MODEL.getTables()) {
-					System.out.println(table.getName());
-				}
+				WORKER_SCHEMAS.add(schema);
+				info(String.format("Create worker schema.[%s, %d tables]", schema, names.size()));
+
+				// JVM終了時にスキーマを削除する
+				addShutdownTask(new ShutdownTask() {
+					@Override
+					public void execute(final Connection connection) throws SQLException {
+						WorkerSchemaSupport.drop(connection, schema);
+					}
+				});
 			} catch (SQLException ex) {
 				ex.printStackTrace();
-				fail("Database error.");
+				fail("Worker schema create error.");
 			} finally {
 				releaseConnection(connection);
 			}
@@ -82,15 +230,27 @@ public abstract class AbstractDatabaseTestCase extends AbstractPersistenceTestCa
 
 	@Override
 	public void tearDown() {
-		for (Connection connection : connections) {
+		endSharedTransaction();
+
+		long threshold = getLeakThreshold();
+		for (Map.Entry<Connection, ConnectionLease> entry : connections.entrySet()) {
+			if (0 < threshold) {
+				warn(String.format("Connection leak.[%d ms]%s", entry.getValue().getHoldTime(), entry.getValue().getBorrowTrace()));
+			}
 			try {
-				if (!connection.isClosed()) {
-					connection.close();
+				if (!entry.getKey().isClosed()) {
+					entry.getKey().close();
 				}
 			} catch (SQLException ex) {
 				ex.printStackTrace();
 			}
 		}
+		connections.clear();
+
+		if (null != SCHEMA_METADATA) {
+			SCHEMA_METADATA.flush();
+		}
+		CURRENT_TEST.remove();
 
 		super.tearDown();
 	}
@@ -124,11 +284,20 @@ public abstract class AbstractDatabaseTestCase extends AbstractPersistenceTestCa
 	 * @return コネクション
 	 */
 	protected final Connection getConnection() {
+		if (null != sharedConnectionProxy) {
+			return sharedConnectionProxy;
+		}
+
 		Connection connection = null;
 		try {
-			connection = factory.getConnection();
+			connection = borrowConnection();
+			if (null != workerSchema) {
+				// ロールバックで戻らないよう、自動コミットのまま設定する
+				connection.setAutoCommit(true);
+				WorkerSchemaSupport.setSearchPath(connection, workerSchema);
+			}
 			connection.setAutoCommit(false);
-			connections.add(connection);
+			connections.put(connection, new ConnectionLease(0 < getLeakThreshold()));
 		} catch (SQLException ex) {
 			ex.printStackTrace();
 			fail("Connection create error.");
@@ -138,53 +307,389 @@ public abstract class AbstractDatabaseTestCase extends AbstractPersistenceTestCa
 
 	/**
 	 * データベースコネクションを返却する。
+	 * <p>
+	 * コネクションはクローズされ、コネクションプールに戻る。共有トランザクションのコネクションの場合、何もしない。
+	 * </p>
 	 * 
 	 * @param connection コネクション
 	 */
 	protected final void releaseConnection(final Connection connection) {
-		if (null != connection) {
-			if (connections.contains(connection)) {
+		if (null != connection && connection != sharedConnectionProxy) {
+			ConnectionLease lease = connections.remove(connection);
+			if (null != lease) {
+				long threshold = getLeakThreshold();
+				if (0 < threshold && threshold < lease.getHoldTime()) {
+					warn(String.format("Connection held too long.[%d ms]%s", lease.getHoldTime(), lease.getBorrowTrace()));
+				}
 				try {
-					if (connection.isClosed()) {
+					if (!connection.isClosed()) {
 						connection.close();
 					}
 				} catch (SQLException ex) {
 					ex.printStackTrace();
 					fail("Connection release error.");
 				}
-				connections.remove(connection);
 			}
 		}
 	}
 
-	private static abstract class ConnectionFactory {
+	/**
+	 * コネクションのリーク検出の閾値を取得する。
+	 * <p>
+	 * システムプロパティ<code>azkfw.test.connection.leakThreshold</code>(ミリ秒)で指定する。
+	 * 指定した場合、借用時のスタックトレースを記録し、閾値を超えて保持されたコネクションとテスト終了時に返却されていないコネクションを警告する。
+	 * </p>
+	 * 
+	 * @return 閾値(ミリ秒)。リーク検出を行わない場合、<code>0</code>
+	 */
+	protected long getLeakThreshold() {
+		String value = System.getProperty("azkfw.test.connection.leakThreshold");
+		if (null != value && 0 < value.trim().length()) {
+			return Long.parseLong(value.trim());
+		}
+		return 0;
+	}
 
-		protected ConnectionFactory() {
+	/**
+	 * 使用中のデータソース設定を取得する。
+	 * 
+	 * @return データソース設定
+	 */
+	protected final Properties getConnectionProperties() {
+		Properties p = new Properties();
+		p.putAll(factoryProperties);
+		return p;
+	}
+
+	/**
+	 * コネクションファクトリを閉じる。
+	 * <p>
+	 * コネクションプール内の全てのコネクションを切断する。再度使用する場合、{@link #openConnectionFactory(Properties)}を呼び出すこと。
+	 * </p>
+	 */
+	protected final void closeConnectionFactory() {
+		lockConnectionFactory();
+		try {
+			if (null != factory) {
+				try {
+					factory.close();
+				} catch (SQLException ex) {
+					ex.printStackTrace();
+				}
+				factory = null;
+			}
+		} finally {
+			unlockConnectionFactory();
 		}
+	}
 
-		public static ConnectionFactory getInstance(final Properties p) {
-			return new DBCPConnectionFactory(p);
+	/**
+	 * コネクションファクトリを開く。
+	 * <p>
+	 * 既にコネクションファクトリが開いている場合、閉じてから開く。
+	 * </p>
+	 * 
+	 * @param p データソース設定
+	 */
+	protected final void openConnectionFactory(final Properties p) {
+		lockConnectionFactory();
+		try {
+			closeConnectionFactory();
+			factoryProperties = p;
+			factory = createConnectionFactory(p);
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+			fail("Database error.");
+		} finally {
+			unlockConnectionFactory();
 		}
+	}
 
-		public abstract Connection getConnection() throws SQLException;
+	/**
+	 * コネクションファクトリの切り替えを開始する。
+	 * <p>
+	 * {@link #unlockConnectionFactory()}を呼び出すまで、他のスレッドのコネクション取得を待機させる。
+	 * {@link #closeConnectionFactory()}から{@link #openConnectionFactory(Properties)}までを一連の操作として行う場合に使用する。
+	 * </p>
+	 */
+	static void lockConnectionFactory() {
+		FACTORY_LOCK.writeLock().lock();
+	}
 
+	/**
+	 * コネクションファクトリの切り替えを終了する。
+	 */
+	static void unlockConnectionFactory() {
+		FACTORY_LOCK.writeLock().unlock();
 	}
 
-	private static class DBCPConnectionFactory extends ConnectionFactory {
+	private static Connection borrowConnection() throws SQLException {
+		FACTORY_LOCK.readLock().lock();
+		try {
+			ConnectionFactory f = factory;
+			if (null == f) {
+				throw new SQLException("Connection factory is closed.");
+			}
+			return f.getConnection();
+		} finally {
+			FACTORY_LOCK.readLock().unlock();
+		}
+	}
+
+	/**
+	 * コネクションプールの統計情報を取得する。
+	 * 
+	 * @return 統計情報
+	 */
+	protected static final ConnectionPoolStatistics getConnectionPoolStatistics() {
+		ConnectionFactory f = factory;
+		return (null == f) ? null : f.getStatistics();
+	}
+
+	private ConnectionFactory createConnectionFactory(final Properties p) throws SQLException {
+		Class<? extends ConnectionFactory> clazz = DBCPConnectionFactory.class;
+		int warmUp = 0;
+
+		String className = p.getProperty(ConnectionFactory.PROPERTY_FACTORY);
+		if (null != className && 0 < className.trim().length()) {
+			try {
+				clazz = Class.forName(className.trim()).asSubclass(ConnectionFactory.class);
+			} catch (ClassNotFoundException ex) {
+				throw new IllegalArgumentException(String.format("Connection factory not found.[%s]", className), ex);
+			}
+		}
+		String warmUpSize = p.getProperty(ConnectionFactory.PROPERTY_WARM_UP);
+		if (null != warmUpSize && 0 < warmUpSize.trim().length()) {
+			warmUp = Integer.parseInt(warmUpSize.trim());
+		}
+
+		// 既定値のままの属性はデータソース設定を上書きしない
+		ConnectionPool cp = this.getClass().getAnnotation(ConnectionPool.class);
+		if (null != cp) {
+			if (DBCPConnectionFactory.class != cp.factory()) {
+				clazz = cp.factory();
+			}
+			if (0 != cp.warmUp()) {
+				warmUp = cp.warmUp();
+			}
+		}
+
+		ConnectionFactory result = ConnectionFactory.newInstance(clazz, p);
+		if (0 < warmUp) {
+			long start = System.nanoTime();
+			result.warmUp(warmUp);
+			info(String.format("Connection pool warm up.[%d, %d ms]", warmUp, (System.nanoTime() - start) / 1000000));
+		}
+		return result;
+	}
+
+	/**
+	 * JVM終了時に実行する後処理を登録する。
+	 * <p>
+	 * 後処理は登録と逆の順序で、自動コミットのコネクションを使用して実行する。ワーカースキーマ使用中に登録した場合、同じスキーマを検索パスに設定する。
+	 * </p>
+	 * 
+	 * @param task 後処理
+	 */
+	final void addShutdownTask(final ShutdownTask task) {
+		synchronized (SHUTDOWN_TASKS) {
+			if (null == SHUTDOWN_HOOK) {
+				SHUTDOWN_HOOK = new Thread("azkfw-test-shutdown") {
+					@Override
+					public void run() {
+						runShutdownTasks();
+					}
+				};
+				Runtime.getRuntime().addShutdownHook(SHUTDOWN_HOOK);
+			}
+			SHUTDOWN_TASKS.add(task);
+			SHUTDOWN_SCHEMAS.add(workerSchema);
+		}
+	}
+
+	private static void runShutdownTasks() {
+		if (null == factory) {
+			return;
+		}
+		synchronized (SHUTDOWN_TASKS) {
+			for (int i = SHUTDOWN_TASKS.size() - 1; i >= 0; i--) {
+				Connection connection = null;
+				try {
+					connection = borrowConnection();
+					connection.setAutoCommit(true);
+					if (null != SHUTDOWN_SCHEMAS.get(i)) {
+						WorkerSchemaSupport.setSearchPath(connection, SHUTDOWN_SCHEMAS.get(i));
+					}
+					SHUTDOWN_TASKS.get(i).execute(connection);
+				} catch (SQLException ex) {
+					ex.printStackTrace();
+				} finally {
+					if (null != connection) {
+						try {
+							connection.close();
+						} catch (SQLException ex) {
+							ex.printStackTrace();
+						}
+					}
+				}
+			}
+			SHUTDOWN_TASKS.clear();
+			SHUTDOWN_SCHEMAS.clear();
+		}
+	}
+
+	/**
+	 * 共有トランザクションを開始する。
+	 * <p>
+	 * 以降{@link #getConnection()}は同じトランザクションを共有するコネクションを返却する。<br />
+	 * 共有コネクションに対するコミット、クローズ、自動コミットの変更は無視され、{@link #tearDown()}でロールバックされる。
+	 * </p>
+	 */
+	protected final void beginSharedTransaction() {
+		if (null != sharedConnection) {
+			return;
+		}
+		try {
+			sharedConnection = borrowConnection();
+			if (null != workerSchema) {
+				// ロールバックで戻らないよう、自動コミットのまま設定する
+				sharedConnection.setAutoCommit(true);
+				WorkerSchemaSupport.setSearchPath(sharedConnection, workerSchema);
+			}
+			sharedConnection.setAutoCommit(false);
+			sharedConnectionProxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+					new SharedConnectionHandler(sharedConnection));
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+			fail("Shared transaction begin error.");
+		}
+	}
 
-		private DataSource ds;
+	/**
+	 * 共有トランザクションを終了する。
+	 * <p>
+	 * 共有トランザクション内の変更は全てロールバックする。
+	 * </p>
+	 */
+	protected final void endSharedTransaction() {
+		endSharedTransaction(false);
+	}
 
-		protected DBCPConnectionFactory(final Properties p) {
+	/**
+	 * 共有トランザクションを終了する。
+	 * 
+	 * @param commit 共有トランザクション内の変更をコミットする場合、<code>true</code>。ロールバックする場合、<code>false</code>
+	 */
+	protected final void endSharedTransaction(final boolean commit) {
+		if (null == sharedConnection) {
+			return;
+		}
+		try {
+			if (commit) {
+				sharedConnection.commit();
+			} else {
+				sharedConnection.rollback();
+			}
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+		} finally {
 			try {
-				this.ds = BasicDataSourceFactory.createDataSource(p);
-			} catch (Exception e) {
-				throw new RuntimeException(e);
+				sharedConnection.close();
+			} catch (SQLException ex) {
+				ex.printStackTrace();
 			}
+			sharedConnection = null;
+			sharedConnectionProxy = null;
+		}
+	}
+
+	/**
+	 * 現在のワーカーのスキーマ名を取得する。
+	 * 
+	 * @return スキーマ名。ワーカー毎のスキーマを使用しない場合、<code>null</code>
+	 */
+	final String getWorkerSchema() {
+		return workerSchema;
+	}
+
+	/**
+	 * 共有トランザクション中か判断する。
+	 * 
+	 * @return 共有トランザクション中の場合、<code>true</code>
+	 */
+	protected final boolean isSharedTransaction() {
+		return (null != sharedConnection);
+	}
+
+	/**
+	 * このインターフェースは、JVM終了時に実行する後処理を定義するインターフェースです。
+	 */
+	static interface ShutdownTask {
+
+		/**
+		 * 後処理を実行する。
+		 * 
+		 * @param connection コネクション
+		 * @throws SQLException SQL実行時に問題が発生した場合
+		 */
+		void execute(Connection connection) throws SQLException;
+	}
+
+	/**
+	 * このクラスは、借用中のコネクションの情報を保持するクラスです。
+	 */
+	private static final class ConnectionLease {
+
+		private final long borrowTime;
+
+		private final Throwable borrowStack;
+
+		private ConnectionLease(final boolean trace) {
+			this.borrowTime = System.nanoTime();
+			this.borrowStack = (trace) ? new Throwable("Connection borrowed") : null;
+		}
+
+		public long getHoldTime() {
+			return (System.nanoTime() - borrowTime) / 1000000;
+		}
+
+		public String getBorrowTrace() {
+			if (null == borrowStack) {
+				return "";
+			}
+			StringBuilder s = new StringBuilder();
+			for (StackTraceElement element : borrowStack.getStackTrace()) {
+				s.append("\n\tat ").append(element);
+			}
+			return s.toString();
+		}
+	}
+
+	private static class SharedConnectionHandler implements InvocationHandler {
+
+		private final Connection connection;
+
+		public SharedConnectionHandler(final Connection connection) {
+			this.connection = connection;
 		}
 
 		@Override
-		public Connection getConnection() throws SQLException {
-			return ds.getConnection();
+		public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			String name = method.getName();
+			if ("close".equals(name) || "commit".equals(name) || "setAutoCommit".equals(name)) {
+				return null;
+			} else if ("isClosed".equals(name)) {
+				return Boolean.FALSE;
+			} else if ("equals".equals(name)) {
+				return (proxy == args[0]);
+			} else if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			}
+			try {
+				return method.invoke(connection, args);
+			} catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
 		}
 	}
 }
@@ -17,18 +17,52 @@
  */
 package org.azkfw.business.test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import junit.framework.TestCase;
-
+import org.azkfw.business.test.annotation.BatchInsert;
+import org.azkfw.business.test.annotation.BulkCopy;
+import org.azkfw.business.test.annotation.DirtyTableTracking;
+import org.azkfw.business.test.annotation.ParallelLoad;
+import org.azkfw.business.test.annotation.RollbackIsolation;
+import org.azkfw.business.test.annotation.StreamingDatasource;
+import org.azkfw.business.test.annotation.TemplateDatabase;
+import org.azkfw.business.test.annotation.TruncateReset;
 import org.azkfw.datasource.Datasource;
 import org.azkfw.datasource.Field;
 import org.azkfw.datasource.FieldType;
@@ -46,63 +80,203 @@ import org.azkfw.util.StringUtility;
  */
 public class AbstractDatasourceTestCase extends AbstractDatabaseTestCase {
 
-	private static Class<? extends TestCase> TEST_CLASS = null;
-	private static Datasource INIT_DATASOURCE = null;
-	private static Datasource TEST_DATASOURCE = null;
-	private static Map<String, Datasource> CASH_DATASOURCES = new HashMap<String, Datasource>();
+	private static final ConcurrentMap<Class<?>, ClassFixture> FIXTURES = new ConcurrentHashMap<Class<?>, ClassFixture>();
+	private static volatile ClassFixture CURRENT_FIXTURE;
+	private static final DatasourceCache CASH_DATASOURCES = DatasourceCache.create();
+	private static final ConcurrentMap<String, String> TEMPLATE_DATABASES = new ConcurrentHashMap<String, String>();
+	private static final Object TEMPLATE_LOCK = new Object();
+
+	private static final int DEFAULT_STREAMING_BATCH_SIZE = 1000;
+	private static final int DEFAULT_TEMPORARY_BATCH_SIZE = 1000;
+	private static final int DEFAULT_FETCH_SIZE = 1000;
+
+	/** 差分再登録時の登録順キャッシュキー */
+	private static final String FIXTURE_TABLES_KEY = "*";
+
+	private ClassFixture fixture;
+	private Map<CursorTable, Connection> cursorTables;
 
 	@Override
 	public void setUp() {
 		super.setUp();
 
-		if (null == TEST_CLASS || !TEST_CLASS.equals(this.getClass())) {
-			TEST_CLASS = this.getClass();
+		cursorTables = new LinkedHashMap<CursorTable, Connection>();
 
-			// Load init datasource
-			InitDatasourceFile id = TEST_CLASS.getAnnotation(InitDatasourceFile.class);
-			if (null != id && StringUtility.isNotEmpty(id.value())) {
-				Datasource ds = null;
-				if (CASH_DATASOURCES.containsKey(id.value())) {
-					debug(String.format("Use cash datasource.[%s]", id.value()));
-					ds = CASH_DATASOURCES.get(id.value());
-				} else {
-					ds = getTestFileToDatasource(id.value());
-					CASH_DATASOURCES.put(id.value(), ds);
-				}
-				INIT_DATASOURCE = ds;
+		fixture = getClassFixture();
+
+		boolean dirtyTracking = !isStreamingDatasource() && isDirtyTableTracking();
+
+		// クラス単位の初期化はワーカーのスキーマ毎に最初のテストのみが行い、並列実行中の他のテストは完了を待つ
+		String schema = getWorkerSchema();
+		if (fixture.beginInitialize(schema)) {
+			ClassFixture previous = CURRENT_FIXTURE;
+			if (null != previous && previous != fixture) {
+				previous.releaseDatasources();
+			}
+			CURRENT_FIXTURE = fixture;
+
+			boolean success = false;
+			try {
+				initializeClassFixture(dirtyTracking);
+				success = true;
+			} finally {
+				fixture.endInitialize(schema, success);
 			}
-			// Store init datasource
-			if (null != INIT_DATASOURCE) {
-				storeDatabase(INIT_DATASOURCE);
+		} else {
+			try {
+				if (!fixture.awaitInitialize(schema)) {
+					fail("Class fixture initialize error.");
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				fail("Class fixture initialize interrupted.");
 			}
+		}
 
-			// Load test datasource
-			TestDatasourceFile td = TEST_CLASS.getAnnotation(TestDatasourceFile.class);
-			if (null != td && StringUtility.isNotEmpty(td.value())) {
-				Datasource ds = null;
-				if (CASH_DATASOURCES.containsKey(td.value())) {
-					debug(String.format("Use cash datasource.[%s]", td.value()));
-					ds = CASH_DATASOURCES.get(td.value());
-				} else {
-					ds = getTestFileToDatasource(td.value());
-					CASH_DATASOURCES.put(td.value(), ds);
+		if (isRollbackIsolation()) {
+			beginSharedTransaction();
+		} else if (dirtyTracking) {
+			// Store dirty tables
+			restoreDirtyTables();
+		} else {
+			// Store test datasource
+			storeTestDatasource();
+		}
+	}
+
+	private void initializeClassFixture(final boolean dirtyTracking) {
+		// Store init datasource
+		if (fixture.isInitStreaming() || null != getInitDatasource()) {
+			if (isTemplateDatabase()) {
+				if (null != getWorkerSchema() && WorkerSchemaSupport.isThreadScope()) {
+					// 作業用データベースの再作成は他スレッドのスキーマも消してしまう
+					fail("TemplateDatabase can not be used with thread scope worker schemas.");
 				}
-				TEST_DATASOURCE = ds;
+				restoreTemplateDatabase(fixture.getInitName());
+			} else {
+				storeInitDatasource();
 			}
 		}
 
-		// Store test datasource
-		if (null != TEST_DATASOURCE) {
-			storeDatabase(TEST_DATASOURCE);
+		// Store test datasource once per class
+		if (isRollbackIsolation() || dirtyTracking) {
+			storeTestDatasource();
+		}
+		if (!isRollbackIsolation() && dirtyTracking) {
+			installDirtyTableTracking();
 		}
+
+		debug(String.format("Datasource cash statistics.[%s]", CASH_DATASOURCES));
 	}
 
 	@Override
 	public void tearDown() {
+		for (Map.Entry<CursorTable, Connection> entry : cursorTables.entrySet()) {
+			entry.getKey().close();
+			releaseConnection(entry.getValue());
+		}
+		cursorTables.clear();
 
 		super.tearDown();
 	}
 
+	/**
+	 * データソースのキャッシュを取得する。
+	 * 
+	 * @return キャッシュ
+	 */
+	protected static final DatasourceCache getDatasourceCache() {
+		return CASH_DATASOURCES;
+	}
+
+	/**
+	 * 初期化用データソースを取得する。
+	 * <p>
+	 * データソースはテストクラスの実行中、クラス単位で保持する。
+	 * </p>
+	 * 
+	 * @return データソース。指定されていない場合、<code>null</code>
+	 */
+	protected final Datasource getInitDatasource() {
+		if (null == fixture.getInitName() || fixture.isInitStreaming()) {
+			return null;
+		}
+		Datasource ds = fixture.getInitDatasource();
+		if (null == ds) {
+			synchronized (fixture) {
+				ds = fixture.getInitDatasource();
+				if (null == ds) {
+					ds = getCashDatasource(fixture.getInitName());
+					fixture.setInitDatasource(ds);
+				}
+			}
+		}
+		return ds;
+	}
+
+	/**
+	 * テスト用データソースを取得する。
+	 * <p>
+	 * データソースはテストクラスの実行中、クラス単位で保持する。
+	 * </p>
+	 * 
+	 * @return データソース。指定されていない場合、<code>null</code>
+	 */
+	protected final Datasource getTestDatasource() {
+		if (null == fixture.getTestName() || fixture.isTestStreaming()) {
+			return null;
+		}
+		Datasource ds = fixture.getTestDatasource();
+		if (null == ds) {
+			synchronized (fixture) {
+				ds = fixture.getTestDatasource();
+				if (null == ds) {
+					ds = getCashDatasource(fixture.getTestName());
+					fixture.setTestDatasource(ds);
+				}
+			}
+		}
+		return ds;
+	}
+
+	private Datasource getCashDatasource(final String name) {
+		Datasource ds = CASH_DATASOURCES.get(name);
+		if (null != ds) {
+			debug(String.format("Use cash datasource.[%s]", name));
+		} else {
+			ds = getTestFileToDatasource(name);
+			CASH_DATASOURCES.put(name, ds);
+		}
+		return ds;
+	}
+
+	private ClassFixture getClassFixture() {
+		Class<?> clazz = this.getClass();
+		ClassFixture result = FIXTURES.get(clazz);
+		if (null == result) {
+			boolean streaming = isStreamingDatasource();
+
+			String initName = null;
+			InitDatasourceFile id = clazz.getAnnotation(InitDatasourceFile.class);
+			if (null != id && StringUtility.isNotEmpty(id.value())) {
+				initName = id.value();
+			}
+			String testName = null;
+			TestDatasourceFile td = clazz.getAnnotation(TestDatasourceFile.class);
+			if (null != td && StringUtility.isNotEmpty(td.value())) {
+				testName = td.value();
+			}
+
+			result = new ClassFixture(initName, streaming && null != initName && StreamingExcelReader.isSupported(initName), testName,
+					streaming && null != testName && StreamingExcelReader.isSupported(testName));
+			ClassFixture other = FIXTURES.putIfAbsent(clazz, result);
+			if (null != other) {
+				result = other;
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * テストファイルをデータソースとして取得する。
 	 * 
@@ -114,7 +288,17 @@ public class AbstractDatasourceTestCase extends AbstractDatabaseTestCase {
 		try {
 			InputStream is = getTestContext().getResourceAsStream(name);
 			if (null != is) {
-				ds = ExcelDatasourceFactory.generate(name, is);
+				if (DatasourceFileCache.isEnabled()) {
+					byte[] content = readContent(is);
+					String key = DatasourceFileCache.getKey(name, content);
+					ds = loadFileCache(name, key);
+					if (null == ds) {
+						ds = ExcelDatasourceFactory.generate(name, new ByteArrayInputStream(content));
+						storeFileCache(name, key, ds);
+					}
+				} else {
+					ds = ExcelDatasourceFactory.generate(name, is);
+				}
 			} else {
 				fatal(String.format("Not found datasource file.[%s]", name));
 				fail(String.format("Not found datasource file.[%s]", name));
@@ -126,6 +310,41 @@ public class AbstractDatasourceTestCase extends AbstractDatabaseTestCase {
 		return ds;
 	}
 
+	private Datasource loadFileCache(final String name, final String key) {
+		Datasource ds = null;
+		try {
+			ds = DatasourceFileCache.load(key);
+			if (null != ds) {
+				debug(String.format("Use file cash datasource.[%s, %s]", name, key));
+			}
+		} catch (IOException ex) {
+			debug(String.format("File cash datasource load error.[%s, %s]", name, ex.getMessage()));
+		}
+		return ds;
+	}
+
+	private void storeFileCache(final String name, final String key, final Datasource ds) {
+		try {
+			DatasourceFileCache.store(key, ds);
+		} catch (IOException ex) {
+			debug(String.format("File cash datasource store error.[%s, %s]", name, ex.getMessage()));
+		}
+	}
+
+	private static byte[] readContent(final InputStream is) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			byte[] buffer = new byte[8192];
+			int size;
+			while (-1 != (size = is.read(buffer))) {
+				out.write(buffer, 0, size);
+			}
+		} finally {
+			is.close();
+		}
+		return out.toByteArray();
+	}
+
 	/**
 	 * データソースの内容を比較する。
 	 * 
@@ -167,16 +386,12 @@ public class AbstractDatasourceTestCase extends AbstractDatabaseTestCase {
 	 * @param option 比較オプション
 	 */
 	public static void assertEquals(final String message, final Datasource expected, final Datasource actual, final DatasourceAssertOption option) {
-		List<Table> expTables = expected.getTables();
-		List<Table> actTables = actual.getTables();
-		for (Table expTable : expTables) {
-			Table actTable = null;
-			for (Table tbl : actTables) {
-				if (expTable.getName().equals(tbl.getName())) {
-					actTable = tbl;
-					break;
-				}
-			}
+		Map<String, Table> actTables = new HashMap<String, Table>();
+		for (Table table : actual.getTables()) {
+			actTables.put(table.getName(), table);
+		}
+		for (Table expTable : expected.getTables()) {
+			Table actTable = actTables.get(expTable.getName());
 			if (null == actTable) {
 				fail(String.format("Not found table.[%s]", expTable.getName()));
 			}
@@ -186,6 +401,10 @@ public class AbstractDatasourceTestCase extends AbstractDatabaseTestCase {
 
 	/**
 	 * テーブルの内容を比較する。
+	 * <p>
+	 * 比較キーはオプションで指定されたキー、未指定の場合はテーブルの主キーを使用する。<br />
+	 * キーがない場合、オプションの指定に従いレコードの順序または値の組み合わせで比較する。
+	 * </p>
 	 * 
 	 * @param message メッセージ
 	 * @param expected 期待値
@@ -193,122 +412,1170 @@ public class AbstractDatasourceTestCase extends AbstractDatabaseTestCase {
 	 * @param option 比較オプション
 	 */
 	public static void assertEquals(final String message, final Table expected, final Table actual, final DatasourceAssertOption option) {
-		// TODO: テーブル比較処理
+		DatasourceAssertOption opt = (null != option) ? option : new DatasourceAssertOption();
+		List<String> keys = opt.getKey(expected.getName());
+		if (null == keys) {
+			keys = getPrimaryKeyNames(expected.getName());
+		}
+
+		// カーソルテーブルの場合、レコードを逐次取得して比較する
+		Iterator<Record> records = (actual instanceof CursorTable) ? ((CursorTable) actual).iterator() : actual.getRecords().iterator();
+
+		TableComparator comparator = new TableComparator(expected, keys, opt);
+		if (!comparator.compare(expected.getRecords(), records)) {
+			fail(comparator.getMessage(message));
+		}
+	}
+
+	/**
+	 * データベースの内容とデータソースの内容を比較する。
+	 * 
+	 * @param expected 期待値
+	 */
+	protected final void assertDatabaseEquals(final Datasource expected) {
+		assertDatabaseEquals(null, expected, null);
+	}
 
+	/**
+	 * データベースの内容とデータソースの内容を比較する。
+	 * 
+	 * @param message メッセージ
+	 * @param expected 期待値
+	 * @param option 比較オプション
+	 */
+	protected final void assertDatabaseEquals(final String message, final Datasource expected, final DatasourceAssertOption option) {
+		for (Table table : expected.getTables()) {
+			assertDatabaseEquals(message, table, option);
+		}
 	}
 
-	private void storeDatabase(final Datasource datasource) {
+	/**
+	 * データベースの内容とテーブルの内容を比較する。
+	 * <p>
+	 * 期待値を一時テーブルに格納し、データベース上で差分を求める。差異のあるレコードのみを取得するため、テーブルの件数によらず比較に必要なメモリは差異の件数に比例する。<br />
+	 * 値はデータベースの型で厳密に比較され、比較オプションのうち比較対象外のフィールドと差異の最大表示数のみが有効となる。
+	 * </p>
+	 * 
+	 * @param message メッセージ
+	 * @param expected 期待値
+	 * @param option 比較オプション
+	 */
+	protected final void assertDatabaseEquals(final String message, final Table expected, final DatasourceAssertOption option) {
+		DatasourceAssertOption opt = (null != option) ? option : new DatasourceAssertOption();
+
+		List<Field> fields = new ArrayList<Field>();
+		List<String> columns = new ArrayList<String>();
+		for (Field field : expected.getFields()) {
+			if (!opt.isIgnoreField(expected.getName(), field.getName())) {
+				fields.add(field);
+				columns.add(field.getName());
+			}
+		}
+		PostgreSQLTableDiff diff = new PostgreSQLTableDiff(expected.getName(), columns);
+
+		boolean result = false;
 		Connection connection = null;
-		PreparedStatement ps = null;
+		Savepoint savepoint = null;
 		try {
 			connection = getConnection();
+			// 共有トランザクションを巻き戻さないようセーブポイントの範囲で処理する
+			savepoint = connection.setSavepoint();
 
-			List<Table> tables = datasource.getTables();
-			// delete
-			for (int i = 0; i < tables.size(); i++) {
-				Table table = tables.get(i);
-				ps = connection.prepareStatement(getDeleteSQL(table));
-				int size = ps.executeUpdate();
-				info(String.format("Table delete data.[%s, %d]", table.getName(), size));
-				ps.close();
-				ps = null;
-			}
-			// insert
-			for (int i = tables.size() - 1; i >= 0; i--) {
-				Table table = tables.get(i);
-				List<Field> fields = table.getFields();
-				List<Record> records = table.getRecords();
-				if (0 < records.size()) {
-					ps = connection.prepareStatement(getInsertSQL(table));
-					int index = 1;
-					for (int j = 0; j < records.size(); j++) {
-						Record record = records.get(j);
-						for (int k = 0; k < fields.size(); k++) {
-							Field field = fields.get(k);
-							Object value = record.get(field.getName());
-							if (null == value) {
-								ps.setObject(index, value);
-							} else if (FieldType.Date == field.getType()) {
-								Date date = null;
-								if (value instanceof Date) {
-									value = date;
-								} else if (value instanceof java.util.Date) {
-									Timestamp ts = new Timestamp(((java.util.Date) value).getTime());
-									date = new Date(ts.getTime());
-								}
-								ps.setObject(index, date);
-							} else {
-								ps.setObject(index, value);
-							}
-							index++;
-						}
-					}
-					int size = ps.executeUpdate();
-					info(String.format("Table insert data.[%s, %d]", table.getName(), size));
-					ps.close();
-					ps = null;
-				}
+			diff.createTemporary(connection);
+			SimpleDatasource.SimpleTable temporary = new SimpleDatasource.SimpleTable(expected.getLabel(), diff.getTemporaryName(), fields);
+			for (Record record : expected.getRecords()) {
+				temporary.addRecord(record);
 			}
+			insertTemporaryTable(connection, temporary);
 
-			connection.commit();
+			result = diff.diff(connection, opt.getMaxDifferences());
 
+			diff.dropTemporary(connection);
+			connection.releaseSavepoint(savepoint);
 		} catch (SQLException ex) {
 			ex.printStackTrace();
-			fail("Datasource store error.");
-		} finally {
-			if (null != ps) {
+			if (null != savepoint) {
 				try {
-					ps.close();
-				} catch (SQLException ex) {
-					ex.printStackTrace();
+					connection.rollback(savepoint);
+				} catch (SQLException ex2) {
+					ex2.printStackTrace();
 				}
 			}
-			if (null != connection) {
-				try {
-					connection.close();
-				} catch (SQLException ex) {
-					ex.printStackTrace();
+			fail("Database diff error.");
+		} finally {
+			releaseConnection(connection);
+		}
+
+		if (!result) {
+			fail(diff.getMessage(message));
+		}
+	}
+
+	/**
+	 * データベースのテーブルの内容をデータソースとして取得する。
+	 * 
+	 * @param tables テーブル名
+	 * @return データソース
+	 */
+	protected final Datasource exportDatabase(final String... tables) {
+		SimpleDatasource datasource = new SimpleDatasource("export");
+		for (String table : tables) {
+			datasource.addTable(export(openTable(table)));
+		}
+		return datasource;
+	}
+
+	/**
+	 * クエリの結果をテーブルとして取得する。
+	 * 
+	 * @param name テーブル名
+	 * @param sql SQL
+	 * @return テーブル
+	 */
+	protected final Table exportQuery(final String name, final String sql) {
+		return export(openQuery(name, sql));
+	}
+
+	/**
+	 * データベースのテーブルをカーソルで開く。
+	 * <p>
+	 * 主キーがある場合、主キーの順で取得する。<br />
+	 * 開いたカーソルとそのコネクションはテスト終了時に閉じられる。
+	 * </p>
+	 * 
+	 * @param table テーブル名
+	 * @return カーソルテーブル
+	 */
+	protected final CursorTable openTable(final String table) {
+		StringBuilder sql = new StringBuilder();
+		sql.append("SELECT * FROM ").append(table);
+		List<String> keys = getPrimaryKeyNames(table);
+		if (null != keys && 0 < keys.size()) {
+			sql.append(" ORDER BY ");
+			for (int i = 0; i < keys.size(); i++) {
+				if (0 != i) {
+					sql.append(", ");
 				}
+				sql.append(keys.get(i));
 			}
 		}
+		return openQuery(table, sql.toString());
 	}
 
-	private String getDeleteSQL(final Table table) {
-		return String.format("DELETE FROM %s;", table.getName());
+	/**
+	 * クエリの結果をカーソルで開く。
+	 * <p>
+	 * 開いたカーソルとそのコネクションはテスト終了時に閉じられる。
+	 * </p>
+	 * 
+	 * @param name テーブル名
+	 * @param sql SQL
+	 * @return カーソルテーブル
+	 */
+	protected final CursorTable openQuery(final String name, final String sql) {
+		CursorTable table = null;
+		Connection connection = getConnection();
+		try {
+			table = CursorTable.open(connection, name, sql, getFetchSize());
+			cursorTables.put(table, connection);
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+			releaseConnection(connection);
+			fail(String.format("Cursor open error.[%s]", name));
+		}
+		return table;
 	}
 
-	private String getInsertSQL(final Table table) {
-		List<Field> fields = table.getFields();
+	/**
+	 * カーソルのフェッチサイズを取得する。
+	 * <p>
+	 * フェッチサイズを変更する場合、このメソッドをオーバーライドする。
+	 * </p>
+	 * 
+	 * @return フェッチサイズ
+	 */
+	protected int getFetchSize() {
+		return DEFAULT_FETCH_SIZE;
+	}
 
-		StringBuilder values = new StringBuilder();
-		values.append("(");
-		for (int j = 0; j < fields.size(); j++) {
-			if (0 != j) {
-				values.append(", ");
+	private Table export(final CursorTable cursor) {
+		Table table = null;
+		try {
+			table = cursor.readColumnar().asTable(cursor.getName());
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+			fail(String.format("Cursor fetch error.[%s]", cursor.getName()));
+		} finally {
+			cursor.close();
+			releaseConnection(cursorTables.remove(cursor));
+		}
+		return table;
+	}
+
+	/**
+	 * ロールバックによるテストの分離を行うか判断する。
+	 * 
+	 * @return 分離する場合、<code>true</code>
+	 */
+	protected boolean isRollbackIsolation() {
+		return this.getClass().isAnnotationPresent(RollbackIsolation.class);
+	}
+
+	/**
+	 * 更新されたテーブルのみを再登録するか判断する。
+	 * 
+	 * @return 更新されたテーブルのみを再登録する場合、<code>true</code>
+	 */
+	protected boolean isDirtyTableTracking() {
+		return this.getClass().isAnnotationPresent(DirtyTableTracking.class);
+	}
+
+	/**
+	 * テンプレートデータベースにより初期化用データソースを復元するか判断する。
+	 * 
+	 * @return 復元する場合、<code>true</code>
+	 */
+	protected boolean isTemplateDatabase() {
+		return this.getClass().isAnnotationPresent(TemplateDatabase.class);
+	}
+
+	/**
+	 * データソースファイルを逐次読み込みで登録するか判断する。
+	 * 
+	 * @return 逐次読み込みで登録する場合、<code>true</code>
+	 */
+	protected boolean isStreamingDatasource() {
+		return this.getClass().isAnnotationPresent(StreamingDatasource.class);
+	}
+
+	/**
+	 * テーブルのバッチサイズを取得する。
+	 * <p>
+	 * バッチサイズが<code>0</code>以下の場合、全レコードを1つのINSERT文で登録する。<br />
+	 * テーブル毎にバッチサイズを変更する場合、このメソッドをオーバーライドする。
+	 * </p>
+	 * 
+	 * @param table テーブル
+	 * @return バッチサイズ
+	 */
+	protected int getBatchSize(final Table table) {
+		int size = 0;
+		BatchInsert bi = this.getClass().getAnnotation(BatchInsert.class);
+		if (null != bi) {
+			size = bi.value();
+			for (BatchInsert.TableSize ts : bi.tables()) {
+				if (ts.name().equalsIgnoreCase(table.getName())) {
+					size = ts.size();
+					break;
+				}
 			}
-			values.append("?");
 		}
-		values.append(")");
+		return size;
+	}
 
-		StringBuilder sql = new StringBuilder();
-		sql.append("INSERT INTO ");
-		sql.append(table.getName());
-		sql.append("(");
-		for (int i = 0; i < fields.size(); i++) {
-			Field field = fields.get(i);
-			if (0 != i) {
-				sql.append(", ");
+	private void restoreTemplateDatabase(final String name) {
+		// コネクションファクトリを切り替えるため、並列に実行しない
+		synchronized (TEMPLATE_LOCK) {
+			// Snapshot
+			if (null == TEMPLATE_DATABASES.get(name)) {
+				storeInitDatasource();
+			}
+			Properties p = getConnectionProperties();
+			String url = p.getProperty("url");
+			String database = TemplateDatabaseSupport.getDatabaseName(url);
+
+			// 並列フォーク間で同じデータベースを削除・作成しないよう、ワーカーIDを付与する
+			String suffix = "_w" + WorkerSchemaSupport.getWorkerId();
+			String work = database.endsWith("_work" + suffix) ? database : database + "_work" + suffix;
+			String base = work.substring(0, work.length() - ("_work" + suffix).length());
+
+			String template = TEMPLATE_DATABASES.get(name);
+			try {
+				if (null == template) {
+					template = String.format("%s_tpl_%s%s", base, getTemplateKey(name), suffix);
+					lockConnectionFactory();
+					try {
+						closeConnectionFactory();
+						try {
+							TemplateDatabaseSupport.createDatabase(p, template, database);
+						} finally {
+							openConnectionFactory(p);
+						}
+					} finally {
+						unlockConnectionFactory();
+					}
+					TEMPLATE_DATABASES.put(name, template);
+					info(String.format("Create template database.[%s, %s]", name, template));
+				} else {
+					// Restore
+					lockConnectionFactory();
+					try {
+						closeConnectionFactory();
+						try {
+							TemplateDatabaseSupport.createDatabase(p, work, template);
+						} finally {
+							p.setProperty("url", TemplateDatabaseSupport.replaceDatabaseName(url, work));
+							openConnectionFactory(p);
+						}
+					} finally {
+						unlockConnectionFactory();
+					}
+					info(String.format("Restore template database.[%s, %s]", name, work));
+				}
+			} catch (SQLException ex) {
+				ex.printStackTrace();
+				fail("Template database error.");
 			}
-			sql.append(field.getName());
 		}
-		sql.append(") VALUES ");
+	}
 
-		for (int i = 0; i < table.getRecords().size(); i++) {
-			if (0 != i) {
-				sql.append(", ");
+	/**
+	 * テンプレートデータベースのキーを取得する。
+	 * <p>
+	 * データソースファイルのパスと内容のハッシュ値から生成する。
+	 * </p>
+	 * 
+	 * @param name データソースファイル名
+	 * @return キー
+	 */
+	private String getTemplateKey(final String name) {
+		String key = null;
+		try {
+			InputStream is = getTestContext().getResourceAsStream(name);
+			if (null == is) {
+				fail(String.format("Not found datasource file.[%s]", name));
 			}
-			sql.append(values.toString());
+			key = DatasourceFileCache.getKey(name, readContent(is));
+		} catch (IOException ex) {
+			fatal(ex);
+			fail(String.format("Datasource load error.[%s]", name));
 		}
-		return sql.toString();
+		// 識別子の長さ制限(63バイト)のため先頭16桁を使用する
+		return key.substring(0, 16);
+	}
+
+	private List<Table> getFixtureTables() {
+		List<Table> tables = new ArrayList<Table>();
+		Set<String> names = new HashSet<String>();
+		Datasource[] datasources = new Datasource[] { getTestDatasource(), getInitDatasource() };
+		for (Datasource datasource : datasources) {
+			if (null == datasource) {
+				continue;
+			}
+			for (Table table : datasource.getTables()) {
+				if (names.add(table.getName().toLowerCase())) {
+					tables.add(table);
+				}
+			}
+		}
+		return tables;
+	}
+
+	private void installDirtyTableTracking() {
+		final List<Table> tables = getFixtureTables();
+		Connection connection = null;
+		try {
+			connection = getConnection();
+			DirtyTableTracker.install(connection, tables);
+			DirtyTableTracker.clear(connection);
+			connection.commit();
+
+			// JVM終了時にトリガーを削除する
+			addShutdownTask(new ShutdownTask() {
+				@Override
+				public void execute(final Connection connection) throws SQLException {
+					DirtyTableTracker.uninstall(connection, tables);
+				}
+			});
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+			fail("Dirty table tracking install error.");
+		} finally {
+			releaseConnection(connection);
+		}
+	}
+
+	private void restoreDirtyTables() {
+		List<Table> tables = null;
+		List<Table> dirtyTables = new ArrayList<Table>();
+
+		Connection connection = null;
+		try {
+			connection = getConnection();
+			tables = getSortedTables(connection, FIXTURE_TABLES_KEY, getFixtureTables());
+			Set<String> names = DirtyTableTracker.getDirtyTables(connection);
+			if (0 < names.size()) {
+				TableDependency dependency = getDependency(connection);
+				// 親テーブルを再登録する場合、子テーブルも再登録する
+				boolean changed = true;
+				while (changed) {
+					changed = false;
+					for (Table table : tables) {
+						String name = table.getName().toLowerCase();
+						if (names.contains(name)) {
+							continue;
+						}
+						for (Table parent : dependency.getParents(table, tables)) {
+							if (names.contains(parent.getName().toLowerCase())) {
+								names.add(name);
+								changed = true;
+								break;
+							}
+						}
+					}
+				}
+				for (Table table : tables) {
+					if (names.contains(table.getName().toLowerCase())) {
+						dirtyTables.add(table);
+					}
+				}
+			}
+			connection.commit();
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+			fail("Dirty table load error.");
+		} finally {
+			releaseConnection(connection);
+		}
+
+		if (0 == dirtyTables.size()) {
+			debug("No dirty table.");
+			return;
+		}
+		storeDatabase(FIXTURE_TABLES_KEY, dirtyTables);
+
+		connection = null;
+		try {
+			connection = getConnection();
+			DirtyTableTracker.clear(connection);
+			connection.commit();
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+			fail("Dirty table clear error.");
+		} finally {
+			releaseConnection(connection);
+		}
+	}
+
+	private void storeDatabase(final String name, final List<Table> datasourceTables) {
+		ParallelLoad pl = this.getClass().getAnnotation(ParallelLoad.class);
+		if (null != pl && 1 < pl.value() && 1 < datasourceTables.size()) {
+			storeDatabaseParallel(name, datasourceTables, pl.value());
+			return;
+		}
+
+		Connection connection = null;
+		try {
+			connection = getConnection();
+
+			List<Table> tables = getSortedTables(connection, name, datasourceTables);
+			// delete
+			deleteTables(connection, tables);
+			// insert
+			for (int i = 0; i < tables.size(); i++) {
+				Table table = tables.get(i);
+				insertTable(connection, table);
+			}
+
+			connection.commit();
+
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+			fail("Datasource store error.");
+		} finally {
+			releaseConnection(connection);
+		}
+	}
+
+	private void storeDatabaseParallel(final String name, final List<Table> datasourceTables, final int threads) {
+		List<Table> tables = null;
+		TableDependency dependency = null;
+
+		// delete
+		Connection connection = null;
+		try {
+			connection = getConnection();
+			dependency = getDependency(connection);
+			tables = getSortedTables(connection, name, datasourceTables);
+			deleteTables(connection, tables);
+			connection.commit();
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+			fail("Datasource store error.");
+			return;
+		} finally {
+			releaseConnection(connection);
+		}
+
+		int size = Math.min(threads, tables.size());
+		String maxActive = getConnectionProperties().getProperty("maxActive");
+		if (null != maxActive && 0 < maxActive.length()) {
+			size = Math.max(1, Math.min(size, Integer.parseInt(maxActive.trim()) - 1));
+		}
+
+		// 依存関係は登録前に1度だけ求め、登録が完了したテーブルの子テーブルの入次数を減らす
+		int[][] childIndexes = TableDependency.getChildIndexes(dependency.getParentIndexes(tables));
+		int[] degrees = new int[tables.size()];
+		for (int[] children : childIndexes) {
+			for (int child : children) {
+				degrees[child]++;
+			}
+		}
+		PriorityQueue<Integer> ready = new PriorityQueue<Integer>();
+		for (int i = 0; i < degrees.length; i++) {
+			if (0 == degrees[i]) {
+				ready.add(i);
+			}
+		}
+		boolean[] started = new boolean[tables.size()];
+		boolean[] loaded = new boolean[tables.size()];
+		int first = 0;
+		int done = 0;
+
+		// insert
+		final BlockingQueue<Connection> pool = new LinkedBlockingQueue<Connection>();
+		List<Connection> borrowed = new ArrayList<Connection>();
+		ExecutorService executor = Executors.newFixedThreadPool(size);
+		CompletionService<Long> service = new ExecutorCompletionService<Long>(executor);
+		Map<Future<Long>, Integer> running = new HashMap<Future<Long>, Integer>();
+		long start = System.nanoTime();
+		long total = 0;
+		String error = null;
+		try {
+			for (int i = 0; i < size; i++) {
+				Connection c = getConnection();
+				borrowed.add(c);
+				pool.add(c);
+			}
+
+			while (done < tables.size()) {
+				if (ready.isEmpty() && running.isEmpty()) {
+					// 循環参照
+					while (started[first]) {
+						first++;
+					}
+					ready.add(first);
+				}
+				// 親テーブルが全て登録済みのテーブルを開始する
+				while (!ready.isEmpty()) {
+					int index = ready.poll();
+					if (started[index]) {
+						continue;
+					}
+					started[index] = true;
+					final Table table = tables.get(index);
+					running.put(service.submit(new Callable<Long>() {
+						@Override
+						public Long call() throws Exception {
+							Connection connection = pool.take();
+							try {
+								long start = System.nanoTime();
+								insertTable(connection, table);
+								connection.commit();
+								return System.nanoTime() - start;
+							} catch (SQLException ex) {
+								connection.rollback();
+								throw ex;
+							} finally {
+								pool.add(connection);
+							}
+						}
+					}), index);
+				}
+
+				Future<Long> future = service.take();
+				int index = running.remove(future);
+				total += future.get();
+				loaded[index] = true;
+				done++;
+				for (int child : childIndexes[index]) {
+					if (0 == --degrees[child] && !started[child]) {
+						ready.add(child);
+					}
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			error = "Datasource store interrupted.";
+		} catch (ExecutionException ex) {
+			ex.getCause().printStackTrace();
+			error = "Datasource store error.";
+		} finally {
+			// 実行中のタスクの終了を待ってから全てのコネクションを返却する
+			executor.shutdownNow();
+			try {
+				if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+					warn("Datasource store tasks did not terminate.");
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			for (Connection c : borrowed) {
+				releaseConnection(c);
+			}
+		}
+		if (null != error) {
+			// 削除はコミット済みのため、登録できなかったテーブルは空のまま残る
+			List<String> names = new ArrayList<String>();
+			for (int i = 0; i < tables.size(); i++) {
+				if (!loaded[i]) {
+					names.add(tables.get(i).getName());
+				}
+			}
+			fail(String.format("%s Tables deleted but not loaded.%s", error, names));
+		}
+		long time = System.nanoTime() - start;
+
+		double speedup = (0 < time) ? (double) total / (double) time : 0.0;
+		info(String.format("Table parallel insert.[%d tables, %d threads, %d ms, speedup %.2fx]", tables.size(), size, time / 1000000, speedup));
+	}
+
+	private void storeInitDatasource() {
+		if (fixture.isInitStreaming()) {
+			storeDatabaseStreaming(fixture.getInitName());
+		} else if (null != getInitDatasource()) {
+			storeDatabase(fixture.getInitName(), getInitDatasource().getTables());
+		}
+	}
+
+	private void storeTestDatasource() {
+		if (fixture.isTestStreaming()) {
+			storeDatabaseStreaming(fixture.getTestName());
+		} else if (null != getTestDatasource()) {
+			storeDatabase(fixture.getTestName(), getTestDatasource().getTables());
+		}
+	}
+
+	private void storeDatabaseStreaming(final String name) {
+		InputStream is = getTestContext().getResourceAsStream(name);
+		if (null == is) {
+			fatal(String.format("Not found datasource file.[%s]", name));
+			fail(String.format("Not found datasource file.[%s]", name));
+			return;
+		}
+
+		StreamingExcelReader reader = null;
+		Connection connection = null;
+		try {
+			reader = new StreamingExcelReader(is);
+			List<Table> tables = new ArrayList<Table>(reader.readTables());
+
+			connection = getConnection();
+			tables = getSortedTables(connection, name, tables);
+			// delete
+			deleteTables(connection, tables);
+			// insert
+			for (int i = 0; i < tables.size(); i++) {
+				insertTableStreaming(connection, reader, (SimpleDatasource.SimpleTable) tables.get(i));
+			}
+
+			connection.commit();
+
+		} catch (IOException ex) {
+			fatal(ex);
+			fail(String.format("Datasource store error.[%s]", name));
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+			fail(String.format("Datasource store error.[%s]", name));
+		} finally {
+			if (null != reader) {
+				reader.close();
+			}
+			try {
+				is.close();
+			} catch (IOException ex) {
+				ex.printStackTrace();
+			}
+			releaseConnection(connection);
+		}
+	}
+
+	private void insertTableStreaming(final Connection connection, final StreamingExcelReader reader, final SimpleDatasource.SimpleTable table)
+			throws SQLException, IOException {
+		final List<Field> fields = table.getFields();
+		final int batchSize = (0 < getBatchSize(table)) ? getBatchSize(table) : DEFAULT_STREAMING_BATCH_SIZE;
+		// [0]: バッチ内件数, [1]: 登録件数
+		final int[] counts = new int[2];
+
+		long start = System.nanoTime();
+		final PreparedStatement ps = connection.prepareStatement(getInsertSQL(table, 1));
+		try {
+			reader.read(table, new StreamingExcelReader.RecordHandler() {
+				@Override
+				public void record(final Object[] values) throws Exception {
+					setRecordParameters(ps, 1, fields, table.newRecord(values));
+					ps.addBatch();
+					counts[0]++;
+					if (batchSize <= counts[0]) {
+						counts[1] += getBatchCount(ps.executeBatch());
+						counts[0] = 0;
+					}
+				}
+			});
+			if (0 < counts[0]) {
+				counts[1] += getBatchCount(ps.executeBatch());
+			}
+		} finally {
+			ps.close();
+		}
+		long time = System.nanoTime() - start;
+
+		double rate = (0 < time) ? (double) counts[1] * 1000000000.0 / (double) time : 0.0;
+		info(String.format("Table insert data.[%s, %d, %d ms, %.1f rows/s]", table.getName(), counts[1], time / 1000000, rate));
+	}
+
+	private void deleteTables(final Connection connection, final List<Table> tables) throws SQLException {
+		PreparedStatement ps = null;
+		try {
+			TruncateReset tr = this.getClass().getAnnotation(TruncateReset.class);
+			if (null != tr && 0 < tables.size()) {
+				ps = connection.prepareStatement(getTruncateSQL(tables, tr));
+				ps.executeUpdate();
+				info(String.format("Table truncate data.[%d tables]", tables.size()));
+				ps.close();
+				ps = null;
+			} else {
+				for (int i = tables.size() - 1; i >= 0; i--) {
+					Table table = tables.get(i);
+					ps = connection.prepareStatement(getDeleteSQL(table));
+					int size = ps.executeUpdate();
+					info(String.format("Table delete data.[%s, %d]", table.getName(), size));
+					ps.close();
+					ps = null;
+				}
+			}
+		} finally {
+			if (null != ps) {
+				ps.close();
+			}
+		}
+	}
+
+	private void insertTable(final Connection connection, final Table table) throws SQLException {
+		List<Record> records = table.getRecords();
+		if (0 == records.size()) {
+			return;
+		}
+
+		long start = System.nanoTime();
+		long size = -1;
+		BulkCopy bc = this.getClass().getAnnotation(BulkCopy.class);
+		if (null != bc) {
+			size = copyTable(connection, table, bc.format());
+		}
+		if (-1 == size) {
+			int batchSize = getBatchSize(table);
+			if (0 < batchSize) {
+				size = insertTableBatch(connection, table, batchSize);
+			} else {
+				size = insertTableValues(connection, table);
+			}
+		}
+		long time = System.nanoTime() - start;
+
+		double rate = (0 < time) ? (double) Math.max(0, size) * 1000000000.0 / (double) time : 0.0;
+		info(String.format("Table insert data.[%s, %d, %d ms, %.1f rows/s]", table.getName(), size, time / 1000000, rate));
+	}
+
+	/**
+	 * 比較用の一時テーブルに登録する。
+	 * <p>
+	 * 件数の多いテーブルでも複数行VALUESのバインド変数の上限を超えないよう、テストクラスのアノテーションによらずCOPYで登録し、
+	 * 使用できない場合は固定サイズのバッチで登録する。
+	 * </p>
+	 * 
+	 * @param connection コネクション
+	 * @param table 一時テーブル
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	private void insertTemporaryTable(final Connection connection, final Table table) throws SQLException {
+		if (0 == table.getRecords().size()) {
+			return;
+		}
+		long start = System.nanoTime();
+		long size = copyTable(connection, table, BulkCopy.Format.TEXT);
+		if (-1 == size) {
+			size = insertTableBatch(connection, table, DEFAULT_TEMPORARY_BATCH_SIZE);
+		}
+		debug(String.format("Temporary table insert data.[%s, %d, %d ms]", table.getName(), size, (System.nanoTime() - start) / 1000000));
+	}
+
+	private long copyTable(final Connection connection, final Table table, final BulkCopy.Format format) throws SQLException {
+		if (!isCopyAvailable(connection)) {
+			debug(String.format("COPY not available.[%s]", table.getName()));
+			return -1;
+		}
+
+		long size = -1;
+		Savepoint savepoint = connection.setSavepoint();
+		try {
+			size = PostgreSQLCopyLoader.copy(connection, table, format);
+			connection.releaseSavepoint(savepoint);
+		} catch (SQLException ex) {
+			info(String.format("Table copy error, fallback to insert.[%s, %s]", table.getName(), ex.getMessage()));
+			connection.rollback(savepoint);
+		}
+		return size;
+	}
+
+	private static boolean isCopyAvailable(final Connection connection) {
+		try {
+			Class.forName("org.postgresql.PGConnection");
+		} catch (ClassNotFoundException ex) {
+			return false;
+		}
+		return PostgreSQLCopyLoader.isSupported(connection);
+	}
+
+	private int insertTableValues(final Connection connection, final Table table) throws SQLException {
+		List<Field> fields = table.getFields();
+		List<Record> records = table.getRecords();
+
+		int size = 0;
+		PreparedStatement ps = null;
+		try {
+			ps = connection.prepareStatement(getInsertSQL(table, records.size()));
+			int index = 1;
+			for (int i = 0; i < records.size(); i++) {
+				index = setRecordParameters(ps, index, fields, records.get(i));
+			}
+			size = ps.executeUpdate();
+		} finally {
+			if (null != ps) {
+				ps.close();
+			}
+		}
+		return size;
+	}
+
+	private int insertTableBatch(final Connection connection, final Table table, final int batchSize) throws SQLException {
+		List<Field> fields = table.getFields();
+		List<Record> records = table.getRecords();
+
+		int size = 0;
+		PreparedStatement ps = null;
+		try {
+			ps = connection.prepareStatement(getInsertSQL(table, 1));
+			int count = 0;
+			for (int i = 0; i < records.size(); i++) {
+				setRecordParameters(ps, 1, fields, records.get(i));
+				ps.addBatch();
+				count++;
+				if (batchSize <= count) {
+					size += getBatchCount(ps.executeBatch());
+					count = 0;
+				}
+			}
+			if (0 < count) {
+				size += getBatchCount(ps.executeBatch());
+			}
+		} finally {
+			if (null != ps) {
+				ps.close();
+			}
+		}
+		return size;
+	}
+
+	private static int setRecordParameters(final PreparedStatement ps, final int offset, final List<Field> fields, final Record record)
+			throws SQLException {
+		int index = offset;
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			ps.setObject(index, toParameterValue(field, record.get(field.getName())));
+			index++;
+		}
+		return index;
+	}
+
+	static Object toParameterValue(final Field field, final Object value) {
+		Object result = value;
+		if (null != value && FieldType.Date == field.getType()) {
+			if (value instanceof Date) {
+				result = value;
+			} else if (value instanceof java.util.Date) {
+				Timestamp ts = new Timestamp(((java.util.Date) value).getTime());
+				result = new Date(ts.getTime());
+			}
+		}
+		return result;
+	}
+
+	private static int getBatchCount(final int[] counts) {
+		int size = 0;
+		for (int count : counts) {
+			if (0 <= count) {
+				size += count;
+			} else if (Statement.SUCCESS_NO_INFO == count) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * テーブルを登録順に並べ替える。
+	 * <p>
+	 * 登録順はデータソース毎に一度だけ算出し、テストクラス単位でキャッシュする。
+	 * </p>
+	 * 
+	 * @param connection コネクション
+	 * @param name データソース名
+	 * @param tables テーブル一覧
+	 * @return 登録順のテーブル一覧
+	 */
+	private List<Table> getSortedTables(final Connection connection, final String name, final List<Table> tables) {
+		List<String> order = fixture.getTableOrder(name);
+		if (null != order) {
+			final Map<String, Integer> indexes = new HashMap<String, Integer>();
+			for (int i = 0; i < order.size(); i++) {
+				indexes.put(order.get(i), i);
+			}
+			boolean cached = true;
+			for (Table table : tables) {
+				if (!indexes.containsKey(table.getName().toLowerCase())) {
+					cached = false;
+					break;
+				}
+			}
+			if (cached) {
+				List<Table> result = new ArrayList<Table>(tables);
+				Collections.sort(result, new Comparator<Table>() {
+					@Override
+					public int compare(final Table o1, final Table o2) {
+						return indexes.get(o1.getName().toLowerCase()).compareTo(indexes.get(o2.getName().toLowerCase()));
+					}
+				});
+				return result;
+			}
+		}
+
+		List<Table> result = getDependency(connection).sort(tables);
+		if (null == order) {
+			order = new ArrayList<String>(result.size());
+			for (Table table : result) {
+				order.add(table.getName().toLowerCase());
+			}
+			fixture.setTableOrder(name, order);
+		}
+		return result;
+	}
+
+	private TableDependency getDependency(final Connection connection) {
+		TableDependency dependency = fixture.getDependency();
+		if (null != dependency) {
+			return dependency;
+		}
+		try {
+			dependency = TableDependency.load(connection);
+		} catch (SQLException ex) {
+			debug(String.format("Table dependency load error.[%s]", ex.getMessage()));
+			try {
+				connection.rollback();
+			} catch (SQLException ex2) {
+				ex2.printStackTrace();
+			}
+			dependency = TableDependency.empty();
+		}
+		fixture.setDependency(dependency);
+		return dependency;
+	}
+
+	private String getTruncateSQL(final List<Table> tables, final TruncateReset option) {
+		StringBuilder sql = new StringBuilder();
+		sql.append("TRUNCATE TABLE ");
+		for (int i = 0; i < tables.size(); i++) {
+			if (0 != i) {
+				sql.append(", ");
+			}
+			sql.append(tables.get(i).getName());
+		}
+		if (option.restartIdentity()) {
+			sql.append(" RESTART IDENTITY");
+		}
+		if (option.cascade()) {
+			sql.append(" CASCADE");
+		}
+		sql.append(";");
+		return sql.toString();
+	}
+
+	private String getDeleteSQL(final Table table) {
+		return String.format("DELETE FROM %s;", table.getName());
+	}
+
+	private String getInsertSQL(final Table table, final int rows) {
+		List<Field> fields = table.getFields();
+
+		StringBuilder values = new StringBuilder();
+		values.append("(");
+		for (int j = 0; j < fields.size(); j++) {
+			if (0 != j) {
+				values.append(", ");
+			}
+			values.append("?");
+		}
+		values.append(")");
+
+		StringBuilder sql = new StringBuilder();
+		sql.append("INSERT INTO ");
+		sql.append(table.getName());
+		sql.append("(");
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			if (0 != i) {
+				sql.append(", ");
+			}
+			sql.append(field.getName());
+		}
+		sql.append(") VALUES ");
+
+		for (int i = 0; i < rows; i++) {
+			if (0 != i) {
+				sql.append(", ");
+			}
+			sql.append(values.toString());
+		}
+		return sql.toString();
+	}
+
+	/**
+	 * このクラスは、テストクラス毎のデータソース指定を保持するクラスです。
+	 */
+	private static final class ClassFixture {
+
+		private final String initName;
+		private final boolean initStreaming;
+		private final String testName;
+		private final boolean testStreaming;
+		/** データソース名 → 登録順のテーブル名 */
+		private final ConcurrentMap<String, List<String>> tableOrders;
+		private volatile TableDependency dependency;
+
+		/** ワーカーのスキーマ → 初期化状態 */
+		private final ConcurrentMap<String, Initialization> initializations;
+
+		private volatile Datasource initDatasource;
+		private volatile Datasource testDatasource;
+
+		public ClassFixture(final String initName, final boolean initStreaming, final String testName, final boolean testStreaming) {
+			this.initName = initName;
+			this.initStreaming = initStreaming;
+			this.testName = testName;
+			this.testStreaming = testStreaming;
+			this.tableOrders = new ConcurrentHashMap<String, List<String>>();
+			this.initializations = new ConcurrentHashMap<String, Initialization>();
+		}
+
+		/**
+		 * クラス単位の初期化を開始する。
+		 * <p>
+		 * スレッド毎のワーカースキーマを使用する場合、データはスキーマ毎に登録するため、初期化もスキーマ毎に行う。
+		 * </p>
+		 * 
+		 * @param schema ワーカーのスキーマ名。使用しない場合、<code>null</code>
+		 * @return 呼び出し元が初期化を行う場合、<code>true</code>
+		 */
+		public boolean beginInitialize(final String schema) {
+			return getInitialization(schema).initializing.compareAndSet(false, true);
+		}
+
+		public void endInitialize(final String schema, final boolean success) {
+			Initialization initialization = getInitialization(schema);
+			initialization.success = success;
+			initialization.initialized.countDown();
+		}
+
+		/**
+		 * クラス単位の初期化の完了を待つ。
+		 * 
+		 * @param schema ワーカーのスキーマ名。使用しない場合、<code>null</code>
+		 * @return 初期化に成功した場合、<code>true</code>
+		 * @throws InterruptedException 割り込まれた場合
+		 */
+		public boolean awaitInitialize(final String schema) throws InterruptedException {
+			Initialization initialization = getInitialization(schema);
+			initialization.initialized.await();
+			return initialization.success;
+		}
+
+		private Initialization getInitialization(final String schema) {
+			String key = (null == schema) ? "" : schema;
+			Initialization result = initializations.get(key);
+			if (null == result) {
+				initializations.putIfAbsent(key, new Initialization());
+				result = initializations.get(key);
+			}
+			return result;
+		}
+
+		public Datasource getInitDatasource() {
+			return initDatasource;
+		}
+
+		public void setInitDatasource(final Datasource datasource) {
+			this.initDatasource = datasource;
+		}
+
+		public Datasource getTestDatasource() {
+			return testDatasource;
+		}
+
+		public void setTestDatasource(final Datasource datasource) {
+			this.testDatasource = datasource;
+		}
+
+		/**
+		 * 保持しているデータソースを解放する。
+		 * <p>
+		 * 再度参照した場合はキャッシュから取得し直す。
+		 * </p>
+		 */
+		public void releaseDatasources() {
+			initDatasource = null;
+			testDatasource = null;
+		}
+
+		public String getInitName() {
+			return initName;
+		}
+
+		public boolean isInitStreaming() {
+			return initStreaming;
+		}
+
+		public String getTestName() {
+			return testName;
+		}
+
+		public boolean isTestStreaming() {
+			return testStreaming;
+		}
+
+		public TableDependency getDependency() {
+			return dependency;
+		}
+
+		public void setDependency(final TableDependency dependency) {
+			this.dependency = dependency;
+		}
+
+		public List<String> getTableOrder(final String name) {
+			return tableOrders.get(name);
+		}
+
+		public void setTableOrder(final String name, final List<String> order) {
+			tableOrders.putIfAbsent(name, Collections.unmodifiableList(order));
+		}
+	}
+
+	/**
+	 * このクラスは、ワーカーのスキーマ毎のクラス単位の初期化状態を保持するクラスです。
+	 */
+	private static final class Initialization {
+
+		private final AtomicBoolean initializing = new AtomicBoolean(false);
+		private final CountDownLatch initialized = new CountDownLatch(1);
+		private volatile boolean success;
 	}
 }
@@ -17,14 +17,30 @@
  */
 package org.azkfw.business.test;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.azkfw.business.dao.DataAccessServiceException;
 import org.azkfw.business.dao.DynamicSQLAccessObject;
+import org.azkfw.business.test.annotation.SharedConnection;
 import org.azkfw.dsql.DynamicSQL;
 import org.azkfw.dsql.DynamicSQLManager;
 import org.azkfw.dsql.Group;
@@ -41,15 +57,40 @@ import org.azkfw.persistence.database.DatabaseConnectionSupport;
  */
 public class AbstractDynamicSQLTestCase extends AbstractDatasourceTestCase {
 
+	private static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/** テストクラス毎の計測結果の集計 */
+	private static final ConcurrentMap<Class<?>, StatementReport.Summary> CLASS_SUMMARIES = new ConcurrentHashMap<Class<?>, StatementReport.Summary>();
+
 	private String dynamicSQLName;
 
-	private List<String> sqls;
+	private List<StatementRecord> statements;
+
+	private DatabaseConnection sharedDatabaseConnection;
+	private boolean sharedCommit;
+
+	private List<DynamicSQLCursor> cursors;
+
+	/**
+	 * このインターフェースは、クエリー結果のレコードを受け取るハンドラです。
+	 */
+	public static interface QueryHandler {
+
+		/**
+		 * レコードを処理する。
+		 * 
+		 * @param record レコード
+		 * @throws Exception 処理中に問題が発生した場合
+		 */
+		void record(Map<String, Object> record) throws Exception;
+	}
 
 	@Override
 	public void setUp() {
 		super.setUp();
 
-		sqls = new ArrayList<String>();
+		statements = new ArrayList<StatementRecord>();
+		cursors = new ArrayList<DynamicSQLCursor>();
 
 		try {
 			dynamicSQLName = null;
@@ -69,6 +110,22 @@ public class AbstractDynamicSQLTestCase extends AbstractDatasourceTestCase {
 			if (null == dynamicSQL || 0 == dynamicSQLName.length()) {
 				fail("Undefined DynamicSQL.");
 			}
+
+			SharedConnection shared = method.getAnnotation(SharedConnection.class);
+			if (null == shared) {
+				shared = clazz.getAnnotation(SharedConnection.class);
+			}
+			if (null != shared) {
+				if (shared.commit() && isRollbackIsolation()) {
+					fail("SharedConnection(commit = true) cannot be used with RollbackIsolation.");
+				}
+				sharedCommit = shared.commit();
+				// 共有トランザクションのコネクション(プロキシ)を共有する
+				beginSharedTransaction();
+				Connection connection = getConnection();
+				sharedDatabaseConnection = new DatabaseConnection(connection);
+				TestConnectionHolder.bind(connection, sharedDatabaseConnection);
+			}
 		} catch (NoSuchMethodException ex) {
 			fatal("", ex);
 			fail("");
@@ -77,10 +134,34 @@ public class AbstractDynamicSQLTestCase extends AbstractDatasourceTestCase {
 
 	@Override
 	public void tearDown() {
+		writeStatementReport();
+
+		// 閉じる際にリスナーがコネクションを返却しリストから除くため、複製して閉じる
+		for (DynamicSQLCursor cursor : new ArrayList<DynamicSQLCursor>(cursors)) {
+			cursor.close();
+		}
+		cursors.clear();
+
+		if (null != sharedDatabaseConnection) {
+			TestConnectionHolder.unbind();
+			sharedDatabaseConnection = null;
+			if (sharedCommit) {
+				endSharedTransaction(true);
+			}
+		}
 
 		super.tearDown();
 	}
 
+	/**
+	 * テストメソッドで共有するコネクションを取得する。
+	 * 
+	 * @return コネクション。共有していない場合、<code>null</code>
+	 */
+	protected final DatabaseConnection getSharedConnection() {
+		return sharedDatabaseConnection;
+	}
+
 	/**
 	 * カウント処理を実行する。
 	 * 
@@ -161,6 +242,228 @@ public class AbstractDynamicSQLTestCase extends AbstractDatasourceTestCase {
 		return doQuery(group, parameter);
 	}
 
+	/**
+	 * クエリー処理を実行し、結果をカーソルで逐次ハンドラに渡す。
+	 * <p>
+	 * レコードを保持しないため、結果の件数によらず使用するメモリは一定となる。
+	 * </p>
+	 * 
+	 * @param handler ハンドラ
+	 * @return 件数
+	 */
+	protected final long query(final QueryHandler handler) {
+		return doQuery(null, null, handler);
+	}
+
+	/**
+	 * クエリー処理を実行し、結果をカーソルで逐次ハンドラに渡す。
+	 * <p>
+	 * レコードを保持しないため、結果の件数によらず使用するメモリは一定となる。
+	 * </p>
+	 * 
+	 * @param group グループ
+	 * @param parameter パラメータ
+	 * @param handler ハンドラ
+	 * @return 件数
+	 */
+	protected final long query(final Group group, final Parameter parameter, final QueryHandler handler) {
+		return doQuery(group, parameter, handler);
+	}
+
+	/**
+	 * クエリー処理を実行し、結果を逐次取得するイテレータを取得する。
+	 * <p>
+	 * カーソルは全レコードを取得した時点、またはテスト終了時に閉じられる。
+	 * </p>
+	 * 
+	 * @return イテレータ
+	 */
+	protected final Iterator<Map<String, Object>> queryIterator() {
+		return doQueryIterator(null, null);
+	}
+
+	/**
+	 * クエリー処理を実行し、結果を逐次取得するイテレータを取得する。
+	 * <p>
+	 * カーソルは全レコードを取得した時点、またはテスト終了時に閉じられる。
+	 * </p>
+	 * 
+	 * @param group グループ
+	 * @param parameter パラメータ
+	 * @return イテレータ
+	 */
+	protected final Iterator<Map<String, Object>> queryIterator(final Group group, final Parameter parameter) {
+		return doQueryIterator(group, parameter);
+	}
+
+	/**
+	 * クエリー処理を実行し、結果を列毎に保持して取得する。
+	 * <p>
+	 * {@link #query()}に比べ、使用するメモリが少ない。
+	 * </p>
+	 * 
+	 * @return クエリー結果
+	 */
+	protected final ColumnarResult queryColumnar() {
+		return doQueryColumnar(null, null);
+	}
+
+	/**
+	 * クエリー処理を実行し、結果を列毎に保持して取得する。
+	 * <p>
+	 * {@link #query(Group, Parameter)}に比べ、使用するメモリが少ない。
+	 * </p>
+	 * 
+	 * @param group グループ
+	 * @param parameter パラメータ
+	 * @return クエリー結果
+	 */
+	protected final ColumnarResult queryColumnar(final Group group, final Parameter parameter) {
+		return doQueryColumnar(group, parameter);
+	}
+
+	/**
+	 * 実行計画を取得する。
+	 * 
+	 * @return 実行計画
+	 */
+	protected final QueryPlan explain() {
+		return doExplain(null, null, false, null);
+	}
+
+	/**
+	 * 実行計画を取得する。
+	 * 
+	 * @param group グループ
+	 * @param parameter パラメータ
+	 * @return 実行計画
+	 */
+	protected final QueryPlan explain(final Group group, final Parameter parameter) {
+		return doExplain(group, parameter, false, null);
+	}
+
+	/**
+	 * 実行計画を取得する。
+	 * <p>
+	 * <code>analyze</code>に<code>true</code>を指定した場合、<code>ANALYZE, BUFFERS</code>を付与してSQLを実際に実行する。
+	 * 実行による変更はセーブポイントまでロールバックする。
+	 * </p>
+	 * 
+	 * @param group グループ
+	 * @param parameter パラメータ
+	 * @param analyze 実際に実行する場合、<code>true</code>
+	 * @return 実行計画
+	 */
+	protected final QueryPlan explain(final Group group, final Parameter parameter, final boolean analyze) {
+		return doExplain(group, parameter, analyze, null);
+	}
+
+	/**
+	 * プランナの設定を変更して実行計画を取得する。
+	 * <p>
+	 * 設定はセーブポイント内で<code>SET LOCAL</code>と同じく適用し、実行計画の取得後に元に戻す。<br />
+	 * 例えば<code>enable_seqscan</code>に<code>off</code>を指定すると、インデックスを使用できるSQLか確認できる。
+	 * </p>
+	 * 
+	 * @param group グループ
+	 * @param parameter パラメータ
+	 * @param analyze 実際に実行する場合、<code>true</code>
+	 * @param settings 設定名 → 設定値
+	 * @return 実行計画
+	 */
+	protected final QueryPlan explain(final Group group, final Parameter parameter, final boolean analyze, final Map<String, String> settings) {
+		return doExplain(group, parameter, analyze, settings);
+	}
+
+	/**
+	 * 実行計画でインデックスを使用していることを確認する。
+	 * 
+	 * @param plan 実行計画
+	 * @param index インデックス名
+	 */
+	protected final void assertIndexUsed(final QueryPlan plan, final String index) {
+		if (!plan.isIndexUsed(index)) {
+			fail(String.format("Index not used.[%s]\n%s", index, plan.getShape()));
+		}
+	}
+
+	/**
+	 * 実行計画でテーブルをシーケンシャルスキャンしていないことを確認する。
+	 * 
+	 * @param plan 実行計画
+	 * @param tables テーブル名
+	 */
+	protected final void assertNoSeqScan(final QueryPlan plan, final String... tables) {
+		for (String table : tables) {
+			if (plan.isSeqScan(table)) {
+				fail(String.format("Seq scan used.[%s]\n%s", table, plan.getShape()));
+			}
+		}
+	}
+
+	/**
+	 * 実行計画の推定総コストが上限以下であることを確認する。
+	 * 
+	 * @param plan 実行計画
+	 * @param maxCost 上限
+	 */
+	protected final void assertTotalCost(final QueryPlan plan, final double maxCost) {
+		if (maxCost < plan.getTotalCost()) {
+			fail(String.format("Total cost exceeded.[%.2f > %.2f]\n%s", plan.getTotalCost(), maxCost, plan.getShape()));
+		}
+	}
+
+	/**
+	 * 実行計画の共有バッファからの読み込みブロック数が上限以下であることを確認する。
+	 * <p>
+	 * <code>ANALYZE</code>を指定して取得した実行計画のみ確認できる。
+	 * </p>
+	 * 
+	 * @param plan 実行計画
+	 * @param maxBlocks 上限
+	 */
+	protected final void assertSharedReadBlocks(final QueryPlan plan, final long maxBlocks) {
+		long blocks = plan.getSharedReadBlocks();
+		if (-1 == blocks) {
+			fail("Buffers not available. Use explain with analyze.");
+		}
+		if (maxBlocks < blocks) {
+			fail(String.format("Shared read blocks exceeded.[%d > %d]\n%s", blocks, maxBlocks, plan.getShape()));
+		}
+	}
+
+	/**
+	 * 実行計画の形がベースラインと一致することを確認する。
+	 * <p>
+	 * ベースラインが存在しない場合は失敗する。システムプロパティ<code>azkfw.test.plan.baseline.update</code>に<code>true</code>を指定した場合のみ、
+	 * 実行計画をベースラインとして保存する。
+	 * </p>
+	 * 
+	 * @param plan 実行計画
+	 * @param name ベースライン名
+	 */
+	protected final void assertPlanBaseline(final QueryPlan plan, final String name) {
+		File file = PlanBaseline.getFile(this.getClass(), name);
+		try {
+			if (PlanBaseline.isUpdate()) {
+				PlanBaseline.store(file, plan);
+				info(String.format("Plan baseline stored.[%s]", file.getPath()));
+				return;
+			}
+			QueryPlan baseline = PlanBaseline.load(file);
+			if (null == baseline) {
+				fail(String.format("Plan baseline not found.[%s] Run with -Dazkfw.test.plan.baseline.update=true to create it.\n%s", file
+						.getPath(), plan.getShape()));
+			}
+			if (!baseline.getShape().equals(plan.getShape())) {
+				fail(String.format("Plan changed.[%s]\nexpected:\n%sactual:\n%s", name, baseline.getShape(), plan.getShape()));
+			}
+		} catch (IOException ex) {
+			fatal(ex);
+			fail(String.format("Plan baseline error.[%s]", file.getPath()));
+		}
+	}
+
 	/**
 	 * 処理を実行する。
 	 * 
@@ -241,22 +544,253 @@ public class AbstractDynamicSQLTestCase extends AbstractDatasourceTestCase {
 		return doUpdate(group, parameter);
 	}
 
+	/**
+	 * 更新処理を一括実行する。
+	 * 
+	 * @param parameters パラメータ
+	 * @return パラメータ毎の更新件数
+	 */
+	protected final int[] updateBatch(final Iterable<Parameter> parameters) {
+		return doBatch(null, parameters.iterator(), DEFAULT_BATCH_SIZE, true);
+	}
+
+	/**
+	 * 更新処理を一括実行する。
+	 * 
+	 * @param group グループ
+	 * @param parameters パラメータ
+	 * @return パラメータ毎の更新件数
+	 */
+	protected final int[] updateBatch(final Group group, final Iterable<Parameter> parameters) {
+		return doBatch(group, parameters.iterator(), DEFAULT_BATCH_SIZE, true);
+	}
+
+	/**
+	 * 更新処理を一括実行する。
+	 * <p>
+	 * 生成したSQLが同じ連続したパラメータをバッチサイズ毎にまとめて実行する。SQLが変わった場合はそれまでのバッチを実行するため、パラメータの順序どおりに実行する。
+	 * </p>
+	 * 
+	 * @param group グループ
+	 * @param parameters パラメータ
+	 * @param batchSize バッチサイズ(1以上)
+	 * @return パラメータ毎の更新件数
+	 */
+	protected final int[] updateBatch(final Group group, final Iterator<Parameter> parameters, final int batchSize) {
+		return doBatch(group, parameters, batchSize, true);
+	}
+
+	/**
+	 * 処理を一括実行する。
+	 * 
+	 * @param parameters パラメータ
+	 * @return パラメータ毎の更新件数
+	 */
+	protected final int[] executeBatch(final Iterable<Parameter> parameters) {
+		return doBatch(null, parameters.iterator(), DEFAULT_BATCH_SIZE, false);
+	}
+
+	/**
+	 * 処理を一括実行する。
+	 * 
+	 * @param group グループ
+	 * @param parameters パラメータ
+	 * @return パラメータ毎の更新件数
+	 */
+	protected final int[] executeBatch(final Group group, final Iterable<Parameter> parameters) {
+		return doBatch(group, parameters.iterator(), DEFAULT_BATCH_SIZE, false);
+	}
+
+	/**
+	 * 処理を一括実行する。
+	 * <p>
+	 * 生成したSQLが同じ連続したパラメータをバッチサイズ毎にまとめて実行する。SQLが変わった場合はそれまでのバッチを実行するため、パラメータの順序どおりに実行する。
+	 * </p>
+	 * 
+	 * @param group グループ
+	 * @param parameters パラメータ
+	 * @param batchSize バッチサイズ(1以上)
+	 * @return パラメータ毎の更新件数
+	 */
+	protected final int[] executeBatch(final Group group, final Iterator<Parameter> parameters, final int batchSize) {
+		return doBatch(group, parameters, batchSize, false);
+	}
+
+	private long doQuery(final Group group, final Parameter parameter, final QueryHandler handler) {
+		DynamicSQL dsql = generate(group, parameter);
+
+		long count = 0;
+		Connection connection = null;
+		DynamicSQLCursor cursor = null;
+		try {
+			long borrow = System.nanoTime();
+			connection = getConnection();
+			borrow = System.nanoTime() - borrow;
+
+			// ハンドラの処理時間は含めず、SQLの実行とレコードの取得時間のみを計測する
+			long start = System.nanoTime();
+			cursor = DynamicSQLCursor.open(connection, dsql.getExecuteSQL(), toParameterValues(dsql.getParameters()), getFetchSize());
+			long elapsed = System.nanoTime() - start;
+			while (true) {
+				start = System.nanoTime();
+				Map<String, Object> data = (cursor.hasNext()) ? cursor.next() : null;
+				elapsed += System.nanoTime() - start;
+				if (null == data) {
+					break;
+				}
+				handler.record(data);
+				count++;
+			}
+			record("query", dsql, elapsed, borrow, count);
+		} catch (AssertionError ex) {
+			throw ex;
+		} catch (Exception ex) {
+			fatal(ex);
+			fail(String.format("DynamicSQL query error.[%s] %s", dsql.getExecuteSQL(), ex));
+		} finally {
+			if (null != cursor) {
+				cursor.close();
+			}
+			releaseConnection(connection);
+		}
+		return count;
+	}
+
+	private QueryPlan doExplain(final Group group, final Parameter parameter, final boolean analyze, final Map<String, String> settings) {
+		DynamicSQL dsql = generate(group, parameter);
+		String sql = String.format("EXPLAIN (FORMAT JSON%s) %s", (analyze) ? ", ANALYZE, BUFFERS" : "", dsql.getExecuteSQL());
+
+		QueryPlan plan = null;
+		Connection connection = null;
+		Savepoint savepoint = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			connection = getConnection();
+			// ANALYZEによる変更やプランナの設定を戻し、失敗しても共有トランザクションを中断させない
+			savepoint = connection.setSavepoint();
+			if (null != settings) {
+				for (Map.Entry<String, String> setting : settings.entrySet()) {
+					setPlannerSetting(connection, setting.getKey(), setting.getValue());
+				}
+			}
+			ps = connection.prepareStatement(sql);
+			List<Object> values = toParameterValues(dsql.getParameters());
+			for (int i = 0; i < values.size(); i++) {
+				ps.setObject(i + 1, values.get(i));
+			}
+			rs = ps.executeQuery();
+			if (rs.next()) {
+				plan = new QueryPlan(rs.getString(1));
+			}
+		} catch (SQLException ex) {
+			fatal(ex);
+			fail(String.format("DynamicSQL explain error.[%s]", dsql.getExecuteSQL()));
+		} finally {
+			try {
+				if (null != rs) {
+					rs.close();
+				}
+				if (null != ps) {
+					ps.close();
+				}
+				if (null != savepoint) {
+					connection.rollback(savepoint);
+				}
+			} catch (SQLException ex) {
+				ex.printStackTrace();
+			}
+			releaseConnection(connection);
+		}
+		assertNotNull(String.format("Plan not found.[%s]", dsql.getExecuteSQL()), plan);
+		return plan;
+	}
+
+	private static void setPlannerSetting(final Connection connection, final String name, final String value) throws SQLException {
+		// SET LOCALは値をバインドできないため、同等のset_configを使用する
+		PreparedStatement ps = null;
+		try {
+			ps = connection.prepareStatement("SELECT set_config(?, ?, true)");
+			ps.setString(1, name);
+			ps.setString(2, value);
+			ps.executeQuery().close();
+		} finally {
+			if (null != ps) {
+				ps.close();
+			}
+		}
+	}
+
+	private ColumnarResult doQueryColumnar(final Group group, final Parameter parameter) {
+		DynamicSQL dsql = generate(group, parameter);
+
+		ColumnarResult result = null;
+		Connection connection = null;
+		DynamicSQLCursor cursor = null;
+		try {
+			long borrow = System.nanoTime();
+			connection = getConnection();
+			borrow = System.nanoTime() - borrow;
+
+			long start = System.nanoTime();
+			cursor = DynamicSQLCursor.open(connection, dsql.getExecuteSQL(), toParameterValues(dsql.getParameters()), getFetchSize());
+			result = cursor.readColumnar();
+			record("query", dsql, System.nanoTime() - start, borrow, result.size());
+		} catch (SQLException ex) {
+			fatal(ex);
+			fail(String.format("DynamicSQL query error.[%s]", dsql.getExecuteSQL()));
+		} finally {
+			if (null != cursor) {
+				cursor.close();
+			}
+			releaseConnection(connection);
+		}
+		return result;
+	}
+
+	private Iterator<Map<String, Object>> doQueryIterator(final Group group, final Parameter parameter) {
+		DynamicSQL dsql = generate(group, parameter);
+
+		DynamicSQLCursor cursor = null;
+		long borrow = System.nanoTime();
+		final Connection connection = getConnection();
+		borrow = System.nanoTime() - borrow;
+		try {
+			long start = System.nanoTime();
+			cursor = DynamicSQLCursor.open(connection, dsql.getExecuteSQL(), toParameterValues(dsql.getParameters()), getFetchSize());
+			// 全レコードを取得してカーソルが閉じた時点でコネクションを返却する
+			cursor.setCloseListener(new DynamicSQLCursor.CloseListener() {
+				@Override
+				public void closed(final DynamicSQLCursor cursor) {
+					cursors.remove(cursor);
+					releaseConnection(connection);
+				}
+			});
+			cursors.add(cursor);
+			// 取得件数はイテレータの消費側で決まるため不明とする
+			record("query", dsql, System.nanoTime() - start, borrow, -1);
+		} catch (SQLException ex) {
+			releaseConnection(connection);
+			fatal(ex);
+			fail(String.format("DynamicSQL query error.[%s]", dsql.getExecuteSQL()));
+		}
+		return cursor;
+	}
+
 	private long doCount(final Group group, final Parameter parameter) {
-		DynamicSQL dsql = DynamicSQLManager.generate(dynamicSQLName, group, parameter);
-		assertNotNull("Undefined DynamicSQL.[" + dynamicSQLName + "]", dsql);
+		DynamicSQL dsql = generate(group, parameter);
 
 		Connection connection = null;
 		long result = -1;
 		try {
 			DynamicSQLAccessObject dao = new DynamicSQLAccessObject(dsql);
-			if (dao instanceof DatabaseConnectionSupport) {
-				connection = getConnection();
-				((DatabaseConnectionSupport) dao).setConnection(new DatabaseConnection(connection));
-			}
+			long borrow = System.nanoTime();
+			connection = setConnection(dao);
+			borrow = System.nanoTime() - borrow;
 
+			long start = System.nanoTime();
 			result = dao.count();
-
-			sqls.add(dsql.getExecuteSQL());
+			record("count", dsql, System.nanoTime() - start, borrow, 1);
 
 		} catch (DataAccessServiceException ex) {
 			fatal(ex);
@@ -268,21 +802,19 @@ public class AbstractDynamicSQLTestCase extends AbstractDatasourceTestCase {
 	}
 
 	private List<Map<String, Object>> doQuery(final Group group, final Parameter parameter) {
-		DynamicSQL dsql = DynamicSQLManager.generate(dynamicSQLName, group, parameter);
-		assertNotNull("Undefined DynamicSQL.[" + dynamicSQLName + "]", dsql);
+		DynamicSQL dsql = generate(group, parameter);
 
 		Connection connection = null;
 		List<Map<String, Object>> records = null;
 		try {
 			DynamicSQLAccessObject dao = new DynamicSQLAccessObject(dsql);
-			if (dao instanceof DatabaseConnectionSupport) {
-				connection = getConnection();
-				((DatabaseConnectionSupport) dao).setConnection(new DatabaseConnection(connection));
-			}
+			long borrow = System.nanoTime();
+			connection = setConnection(dao);
+			borrow = System.nanoTime() - borrow;
 
+			long start = System.nanoTime();
 			records = dao.query();
-
-			sqls.add(dsql.getExecuteSQL());
+			record("query", dsql, System.nanoTime() - start, borrow, (null == records) ? -1 : records.size());
 
 		} catch (DataAccessServiceException ex) {
 			fatal(ex);
@@ -294,21 +826,19 @@ public class AbstractDynamicSQLTestCase extends AbstractDatasourceTestCase {
 	}
 
 	private boolean doExecute(final Group group, final Parameter parameter) {
-		DynamicSQL dsql = DynamicSQLManager.generate(dynamicSQLName, group, parameter);
-		assertNotNull("Undefined DynamicSQL.[" + dynamicSQLName + "]", dsql);
+		DynamicSQL dsql = generate(group, parameter);
 
 		Connection connection = null;
 		boolean result = false;
 		try {
 			DynamicSQLAccessObject dao = new DynamicSQLAccessObject(dsql);
-			if (dao instanceof DatabaseConnectionSupport) {
-				connection = getConnection();
-				((DatabaseConnectionSupport) dao).setConnection(new DatabaseConnection(connection));
-			}
+			long borrow = System.nanoTime();
+			connection = setConnection(dao);
+			borrow = System.nanoTime() - borrow;
 
+			long start = System.nanoTime();
 			result = dao.execute();
-
-			sqls.add(dsql.getExecuteSQL());
+			record("execute", dsql, System.nanoTime() - start, borrow, -1);
 
 		} catch (DataAccessServiceException ex) {
 			fatal(ex);
@@ -320,21 +850,19 @@ public class AbstractDynamicSQLTestCase extends AbstractDatasourceTestCase {
 	}
 
 	private int doUpdate(final Group group, final Parameter parameter) {
-		DynamicSQL dsql = DynamicSQLManager.generate(dynamicSQLName, group, parameter);
-		assertNotNull("Undefined DynamicSQL.[" + dynamicSQLName + "]", dsql);
+		DynamicSQL dsql = generate(group, parameter);
 
 		Connection connection = null;
 		int result = -1;
 		try {
 			DynamicSQLAccessObject dao = new DynamicSQLAccessObject(dsql);
-			if (dao instanceof DatabaseConnectionSupport) {
-				connection = getConnection();
-				((DatabaseConnectionSupport) dao).setConnection(new DatabaseConnection(connection));
-			}
+			long borrow = System.nanoTime();
+			connection = setConnection(dao);
+			borrow = System.nanoTime() - borrow;
 
+			long start = System.nanoTime();
 			result = dao.update();
-
-			sqls.add(dsql.getExecuteSQL());
+			record("update", dsql, System.nanoTime() - start, borrow, result);
 
 		} catch (DataAccessServiceException ex) {
 			fatal(ex);
@@ -344,4 +872,315 @@ public class AbstractDynamicSQLTestCase extends AbstractDatasourceTestCase {
 		}
 		return result;
 	}
+
+	/**
+	 * 実行したSQLの計測結果を取得する。
+	 * 
+	 * @return 計測結果
+	 */
+	protected final List<StatementRecord> getStatementRecords() {
+		return Collections.unmodifiableList(statements);
+	}
+
+	private void record(final String type, final DynamicSQL dsql, final long elapsedTime, final long borrowTime, final long rows) {
+		record(type, dsql.getExecuteSQL(), dsql.getParameters(), elapsedTime, borrowTime, rows);
+	}
+
+	private void record(final String type, final String sql, final List<Object> parameters, final long elapsedTime, final long borrowTime,
+			final long rows) {
+		List<Object> values = (null == parameters) ? null : new ArrayList<Object>(parameters);
+		statements.add(new StatementRecord(dynamicSQLName, type, sql, values, elapsedTime, borrowTime, rows));
+	}
+
+	private void writeStatementReport() {
+		StatementReport.Summary summary = CLASS_SUMMARIES.get(this.getClass());
+		if (null == summary) {
+			CLASS_SUMMARIES.putIfAbsent(this.getClass(), new StatementReport.Summary());
+			summary = CLASS_SUMMARIES.get(this.getClass());
+		}
+		synchronized (summary) {
+			summary.add(statements);
+			if (StatementReport.isEnabled()) {
+				try {
+					StatementReport.writeTest(this.getClass(), getTestName().getMethodName(), statements);
+					StatementReport.writeClass(this.getClass(), summary);
+				} catch (IOException ex) {
+					ex.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private int[] doBatch(final Group group, final Iterator<Parameter> parameters, final int batchSize, final boolean update) {
+		if (0 >= batchSize) {
+			fail(String.format("Invalid batch size.[%d]", batchSize));
+		}
+
+		List<Integer> counts = new ArrayList<Integer>();
+
+		Connection connection = null;
+		StatementBatch batch = null;
+		String sql = null;
+		try {
+			long borrow = System.nanoTime();
+			connection = getConnection();
+			borrow = System.nanoTime() - borrow;
+
+			batch = new StatementBatch(connection);
+			DatabaseConnection batchConnection = new DatabaseConnection(batch.getConnection());
+			while (parameters.hasNext()) {
+				DynamicSQL dsql = generate(group, parameters.next());
+				if (!dsql.getExecuteSQL().equals(batch.getSQL())) {
+					// 生成したSQLが変わった場合、それまでのバッチを実行し入力順を保つ
+					if (0 < batch.size()) {
+						long start = System.nanoTime();
+						int rows = batch.execute(counts);
+						record("batch", sql, null, System.nanoTime() - start, borrow, rows);
+						borrow = 0;
+					}
+					batch.close();
+				}
+				sql = dsql.getExecuteSQL();
+
+				// パラメータのバインドはDAOに任せ、実行のみバッチへ置き換える
+				DynamicSQLAccessObject dao = new DynamicSQLAccessObject(dsql);
+				((DatabaseConnectionSupport) dao).setConnection(batchConnection);
+				batch.setPosition(counts.size());
+				counts.add(Statement.SUCCESS_NO_INFO);
+				if (update) {
+					dao.update();
+				} else {
+					dao.execute();
+				}
+
+				if (batchSize <= batch.size()) {
+					long start = System.nanoTime();
+					int rows = batch.execute(counts);
+					record("batch", sql, null, System.nanoTime() - start, borrow, rows);
+					borrow = 0;
+				}
+			}
+			if (0 < batch.size()) {
+				long start = System.nanoTime();
+				int rows = batch.execute(counts);
+				record("batch", sql, null, System.nanoTime() - start, borrow, rows);
+			}
+
+			connection.commit();
+		} catch (DataAccessServiceException ex) {
+			fatal(ex);
+			fail(String.format("DynamicSQL batch error.[%s]", sql));
+		} catch (SQLException ex) {
+			fatal(ex);
+			fail(String.format("DynamicSQL batch error.[%s]", sql));
+		} finally {
+			if (null != batch) {
+				batch.close();
+			}
+			releaseConnection(connection);
+		}
+
+		int[] result = new int[counts.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = counts.get(i);
+		}
+		return result;
+	}
+
+	private static List<Object> toParameterValues(final List<Object> values) {
+		List<Object> result = new ArrayList<Object>(values.size());
+		for (Object value : values) {
+			result.add(toParameterValue(value));
+		}
+		return result;
+	}
+
+	private static Object toParameterValue(final Object value) {
+		if (value instanceof java.util.Date && !(value instanceof java.sql.Date) && !(value instanceof java.sql.Time)
+				&& !(value instanceof Timestamp)) {
+			return new Timestamp(((java.util.Date) value).getTime());
+		}
+		return value;
+	}
+
+	private DynamicSQL generate(final Group group, final Parameter parameter) {
+		DynamicSQL dsql = DynamicSQLManager.generate(dynamicSQLName, group, parameter);
+		assertNotNull("Undefined DynamicSQL.[" + dynamicSQLName + "]", dsql);
+		return dsql;
+	}
+
+	/**
+	 * DAOにコネクションを設定する。
+	 * 
+	 * @param dao DAO
+	 * @return 返却が必要なコネクション。共有コネクションを設定した場合、<code>null</code>
+	 */
+	private Connection setConnection(final DynamicSQLAccessObject dao) {
+		Connection connection = null;
+		if (dao instanceof DatabaseConnectionSupport) {
+			if (null != sharedDatabaseConnection) {
+				((DatabaseConnectionSupport) dao).setConnection(sharedDatabaseConnection);
+			} else {
+				connection = getConnection();
+				((DatabaseConnectionSupport) dao).setConnection(new DatabaseConnection(connection));
+			}
+		}
+		return connection;
+	}
+
+	/**
+	 * このクラスは、同じSQLのバッチを保持するクラスです。
+	 * <p>
+	 * DAOへ渡すコネクションのプロキシを提供し、DAOがバインドしたパラメータを実行せずにバッチへ追加する。保持するステートメントは常に1つとする。
+	 * </p>
+	 */
+	private static final class StatementBatch {
+
+		private final Connection connection;
+
+		private final Connection proxy;
+
+		private String sql;
+
+		private PreparedStatement ps;
+
+		private PreparedStatement psProxy;
+
+		/** バッチに追加したパラメータの位置 */
+		private final List<Integer> rows;
+
+		/** 次にバッチへ追加するパラメータの位置 */
+		private int position;
+
+		private StatementBatch(final Connection connection) {
+			this.connection = connection;
+			this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+					new ConnectionHandler());
+			this.rows = new ArrayList<Integer>();
+		}
+
+		private Connection getConnection() {
+			return proxy;
+		}
+
+		private String getSQL() {
+			return sql;
+		}
+
+		private int size() {
+			return rows.size();
+		}
+
+		private void setPosition(final int position) {
+			this.position = position;
+		}
+
+		private int execute(final List<Integer> counts) throws SQLException {
+			if (0 == rows.size()) {
+				return 0;
+			}
+			int total = 0;
+			int[] results = ps.executeBatch();
+			for (int i = 0; i < results.length && i < rows.size(); i++) {
+				counts.set(rows.get(i), results[i]);
+				if (0 <= results[i]) {
+					total += results[i];
+				}
+			}
+			rows.clear();
+			return total;
+		}
+
+		private void close() {
+			if (null != ps) {
+				try {
+					ps.close();
+				} catch (SQLException ex) {
+					ex.printStackTrace();
+				}
+			}
+			sql = null;
+			ps = null;
+			psProxy = null;
+			rows.clear();
+		}
+
+		private PreparedStatement prepareStatement(final String sql) throws SQLException {
+			if (null != ps && !sql.equals(this.sql)) {
+				throw new SQLException(String.format("Batch statement already prepared.[%s]", this.sql));
+			}
+			if (null == ps) {
+				ps = connection.prepareStatement(sql);
+				psProxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+						new Class<?>[] { PreparedStatement.class }, new StatementHandler(ps));
+				this.sql = sql;
+			}
+			return psProxy;
+		}
+
+		/**
+		 * このクラスは、コミットとクローズを無効にしステートメントをバッチ用に置き換えるコネクションのハンドラです。
+		 */
+		private final class ConnectionHandler implements InvocationHandler {
+
+			@Override
+			public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+				String name = method.getName();
+				if ("close".equals(name) || "commit".equals(name) || "setAutoCommit".equals(name)) {
+					return null;
+				} else if ("isClosed".equals(name)) {
+					return Boolean.FALSE;
+				} else if ("equals".equals(name)) {
+					return (proxy == args[0]);
+				} else if ("hashCode".equals(name)) {
+					return System.identityHashCode(proxy);
+				} else if ("prepareStatement".equals(name) && 1 == args.length) {
+					return prepareStatement((String) args[0]);
+				}
+				try {
+					return method.invoke(connection, args);
+				} catch (InvocationTargetException ex) {
+					throw ex.getTargetException();
+				}
+			}
+		}
+
+		/**
+		 * このクラスは、実行をバッチへの追加に置き換えるステートメントのハンドラです。
+		 */
+		private final class StatementHandler implements InvocationHandler {
+
+			private final PreparedStatement statement;
+
+			private StatementHandler(final PreparedStatement statement) {
+				this.statement = statement;
+			}
+
+			@Override
+			public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+				String name = method.getName();
+				boolean noArgs = (null == args || 0 == args.length);
+				if ("executeUpdate".equals(name) && noArgs) {
+					statement.addBatch();
+					rows.add(position);
+					return 0;
+				} else if ("execute".equals(name) && noArgs) {
+					statement.addBatch();
+					rows.add(position);
+					return Boolean.FALSE;
+				} else if ("close".equals(name)) {
+					return null;
+				} else if ("equals".equals(name)) {
+					return (proxy == args[0]);
+				} else if ("hashCode".equals(name)) {
+					return System.identityHashCode(proxy);
+				}
+				try {
+					return method.invoke(statement, args);
+				} catch (InvocationTargetException ex) {
+					throw ex.getTargetException();
+				}
+			}
+		}
+	}
 }
@@ -0,0 +1,565 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.azkfw.datasource.Field;
+import org.azkfw.datasource.Record;
+import org.azkfw.datasource.Table;
+
+/**
+ * このクラスは、クエリー結果を列毎に保持するクラスです。
+ * <p>
+ * 列名の索引は全レコードで共有し、整数・浮動小数点数の列はプリミティブ型の配列で保持する。
+ * そのためレコード毎に{@link Map}を生成する場合に比べ、使用するメモリが少ない。<br />
+ * 互換性のため、{@link #asMaps()}で<code>List&lt;Map&lt;String, Object&gt;&gt;</code>として、{@link #asTable(String)}で{@link Table}として参照できる。
+ * いずれもレコードを複製しないビューである。<br />
+ * 同じ列名(大文字小文字を区別しない)が複数ある場合、{@link DynamicSQLCursor}や{@link CursorTable}と同じく後の列を採用する。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public final class ColumnarResult {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final String[] names;
+
+	/** 列名(大文字小文字を区別しない) → 列番号 */
+	private final Map<String, Integer> indexes;
+
+	private final Column[] columns;
+
+	/** 列名の重複を除いた列番号 */
+	private final int[] keys;
+
+	private final List<Field> fields;
+
+	private int size;
+
+	private ColumnarResult(final ResultSetMetaData meta, final int capacity) throws SQLException {
+		int count = meta.getColumnCount();
+		names = new String[count];
+		indexes = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
+		columns = new Column[count];
+		int[] types = new int[count];
+		for (int i = 0; i < count; i++) {
+			types[i] = meta.getColumnType(i + 1);
+			names[i] = meta.getColumnLabel(i + 1);
+			// Mapへの格納と同じく、後の列で上書きする
+			indexes.put(names[i], i);
+			columns[i] = newColumn(types[i], capacity);
+		}
+
+		keys = new int[indexes.size()];
+		List<Field> list = new ArrayList<Field>(keys.length);
+		int key = 0;
+		for (int i = 0; i < count; i++) {
+			if (i == indexes.get(names[i])) {
+				keys[key++] = i;
+				list.add(new SimpleDatasource.SimpleField(names[i], names[i], CursorTable.toFieldType(types[i])));
+			}
+		}
+		fields = Collections.unmodifiableList(list);
+		size = 0;
+	}
+
+	/**
+	 * 結果セットの残りの全レコードを読み込む。
+	 * 
+	 * @param rs 結果セット
+	 * @return クエリー結果
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	static ColumnarResult read(final ResultSet rs) throws SQLException {
+		// 配列は1.5倍ずつ拡張し、読み込み後に余剰分を一度だけ切り詰める
+		int capacity = Math.max(INITIAL_CAPACITY, rs.getFetchSize());
+		ColumnarResult result = new ColumnarResult(rs.getMetaData(), capacity);
+		while (rs.next()) {
+			for (int i = 0; i < result.columns.length; i++) {
+				result.columns[i].read(rs, i + 1, result.size);
+			}
+			result.size++;
+		}
+		for (Column column : result.columns) {
+			column.trim(result.size);
+		}
+		return result;
+	}
+
+	/**
+	 * レコード数を取得する。
+	 * 
+	 * @return レコード数
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 列数を取得する。
+	 * 
+	 * @return 列数
+	 */
+	public int getColumnCount() {
+		return names.length;
+	}
+
+	/**
+	 * 列名を取得する。
+	 * 
+	 * @param column 列番号(0始まり)
+	 * @return 列名
+	 */
+	public String getColumnName(final int column) {
+		return names[column];
+	}
+
+	/**
+	 * 列番号を取得する。
+	 * <p>
+	 * 同じ列名が複数ある場合、後の列番号を返す。
+	 * </p>
+	 * 
+	 * @param name 列名
+	 * @return 列番号(0始まり)。存在しない場合、<code>-1</code>
+	 */
+	public int getColumnIndex(final String name) {
+		Integer index = indexes.get(name);
+		return (null == index) ? -1 : index;
+	}
+
+	/**
+	 * 値を取得する。
+	 * 
+	 * @param row 行番号(0始まり)
+	 * @param column 列番号(0始まり)
+	 * @return 値
+	 */
+	public Object getObject(final int row, final int column) {
+		checkRow(row);
+		return columns[column].get(row);
+	}
+
+	/**
+	 * 値を取得する。
+	 * 
+	 * @param row 行番号(0始まり)
+	 * @param name 列名
+	 * @return 値。列が存在しない場合、<code>null</code>
+	 */
+	public Object getObject(final int row, final String name) {
+		int column = getColumnIndex(name);
+		return (-1 == column) ? null : getObject(row, column);
+	}
+
+	/**
+	 * 値が<code>null</code>か判断する。
+	 * 
+	 * @param row 行番号(0始まり)
+	 * @param column 列番号(0始まり)
+	 * @return <code>null</code>の場合、<code>true</code>
+	 */
+	public boolean isNull(final int row, final int column) {
+		checkRow(row);
+		return columns[column].isNull(row);
+	}
+
+	/**
+	 * 整数値を取得する。
+	 * <p>
+	 * 整数の列の場合、オブジェクトを生成せずに取得する。値が<code>null</code>の場合、<code>0</code>を返す。
+	 * </p>
+	 * 
+	 * @param row 行番号(0始まり)
+	 * @param column 列番号(0始まり)
+	 * @return 値
+	 */
+	public long getLong(final int row, final int column) {
+		checkRow(row);
+		Column c = columns[column];
+		if (c instanceof LongColumn) {
+			return ((LongColumn) c).values[row];
+		}
+		Object value = c.get(row);
+		return (value instanceof Number) ? ((Number) value).longValue() : 0L;
+	}
+
+	/**
+	 * 浮動小数点数値を取得する。
+	 * <p>
+	 * 浮動小数点数の列の場合、オブジェクトを生成せずに取得する。値が<code>null</code>の場合、<code>0</code>を返す。
+	 * </p>
+	 * 
+	 * @param row 行番号(0始まり)
+	 * @param column 列番号(0始まり)
+	 * @return 値
+	 */
+	public double getDouble(final int row, final int column) {
+		checkRow(row);
+		Column c = columns[column];
+		if (c instanceof DoubleColumn) {
+			return ((DoubleColumn) c).values[row];
+		} else if (c instanceof LongColumn) {
+			return ((LongColumn) c).values[row];
+		}
+		Object value = c.get(row);
+		return (value instanceof Number) ? ((Number) value).doubleValue() : 0.0;
+	}
+
+	/**
+	 * レコードを<code>Map</code>のリストとして参照する。
+	 * 
+	 * @return レコードのビュー
+	 */
+	public List<Map<String, Object>> asMaps() {
+		return new AbstractList<Map<String, Object>>() {
+			@Override
+			public Map<String, Object> get(final int index) {
+				checkRow(index);
+				return new RowMap(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * テーブルとして参照する。
+	 * 
+	 * @param name テーブル名
+	 * @return テーブルのビュー
+	 */
+	public Table asTable(final String name) {
+		return new ColumnarTable(name);
+	}
+
+	private void checkRow(final int row) {
+		if (row < 0 || size <= row) {
+			throw new IndexOutOfBoundsException(String.format("Row out of range.[%d, %d]", row, size));
+		}
+	}
+
+	private static Column newColumn(final int type, final int capacity) {
+		switch (type) {
+		case Types.SMALLINT:
+		case Types.INTEGER:
+			return new LongColumn(true, capacity);
+		case Types.BIGINT:
+			return new LongColumn(false, capacity);
+		case Types.REAL:
+			return new DoubleColumn(true, capacity);
+		case Types.FLOAT:
+		case Types.DOUBLE:
+			return new DoubleColumn(false, capacity);
+		default:
+			return new ObjectColumn(capacity);
+		}
+	}
+
+	/**
+	 * このクラスは、1列分の値を保持するクラスです。
+	 */
+	private static abstract class Column {
+
+		protected BitSet nulls = new BitSet();
+
+		public abstract void read(final ResultSet rs, final int index, final int row) throws SQLException;
+
+		public abstract Object get(final int row);
+
+		/**
+		 * 配列をレコード数に切り詰める。
+		 * 
+		 * @param size レコード数
+		 */
+		public abstract void trim(final int size);
+
+		public boolean isNull(final int row) {
+			return nulls.get(row);
+		}
+
+		/**
+		 * 拡張後の容量を取得する。
+		 * 
+		 * @param length 現在の容量
+		 * @param row 格納する行番号
+		 * @return 容量
+		 */
+		protected static int grow(final int length, final int row) {
+			return Math.max(row + 1, length + (length >> 1));
+		}
+	}
+
+	/**
+	 * このクラスは、整数の列を保持するクラスです。
+	 */
+	private static final class LongColumn extends Column {
+
+		private final boolean integer;
+
+		private long[] values;
+
+		private LongColumn(final boolean integer, final int capacity) {
+			this.integer = integer;
+			this.values = new long[capacity];
+		}
+
+		@Override
+		public void read(final ResultSet rs, final int index, final int row) throws SQLException {
+			if (values.length <= row) {
+				values = Arrays.copyOf(values, grow(values.length, row));
+			}
+			values[row] = rs.getLong(index);
+			if (rs.wasNull()) {
+				nulls.set(row);
+			}
+		}
+
+		@Override
+		public Object get(final int row) {
+			if (nulls.get(row)) {
+				return null;
+			}
+			return (integer) ? (Object) Integer.valueOf((int) values[row]) : (Object) Long.valueOf(values[row]);
+		}
+
+		@Override
+		public void trim(final int size) {
+			if (size < values.length) {
+				values = Arrays.copyOf(values, size);
+			}
+		}
+	}
+
+	/**
+	 * このクラスは、浮動小数点数の列を保持するクラスです。
+	 */
+	private static final class DoubleColumn extends Column {
+
+		private final boolean real;
+
+		private double[] values;
+
+		private DoubleColumn(final boolean real, final int capacity) {
+			this.real = real;
+			this.values = new double[capacity];
+		}
+
+		@Override
+		public void read(final ResultSet rs, final int index, final int row) throws SQLException {
+			if (values.length <= row) {
+				values = Arrays.copyOf(values, grow(values.length, row));
+			}
+			values[row] = rs.getDouble(index);
+			if (rs.wasNull()) {
+				nulls.set(row);
+			}
+		}
+
+		@Override
+		public Object get(final int row) {
+			if (nulls.get(row)) {
+				return null;
+			}
+			return (real) ? (Object) Float.valueOf((float) values[row]) : (Object) Double.valueOf(values[row]);
+		}
+
+		@Override
+		public void trim(final int size) {
+			if (size < values.length) {
+				values = Arrays.copyOf(values, size);
+			}
+		}
+	}
+
+	/**
+	 * このクラスは、その他の型の列を保持するクラスです。
+	 */
+	private static final class ObjectColumn extends Column {
+
+		private Object[] values;
+
+		private ObjectColumn(final int capacity) {
+			this.values = new Object[capacity];
+		}
+
+		@Override
+		public void read(final ResultSet rs, final int index, final int row) throws SQLException {
+			if (values.length <= row) {
+				values = Arrays.copyOf(values, grow(values.length, row));
+			}
+			values[row] = rs.getObject(index);
+			if (null == values[row]) {
+				nulls.set(row);
+			}
+		}
+
+		@Override
+		public Object get(final int row) {
+			return values[row];
+		}
+
+		@Override
+		public void trim(final int size) {
+			if (size < values.length) {
+				values = Arrays.copyOf(values, size);
+			}
+		}
+	}
+
+	/**
+	 * このクラスは、1レコードを<code>Map</code>として参照するクラスです。
+	 * <p>
+	 * 同じ列名が複数ある場合、後の列のみを含む。
+	 * </p>
+	 */
+	private final class RowMap extends AbstractMap<String, Object> {
+
+		private final int row;
+
+		private RowMap(final int row) {
+			this.row = row;
+		}
+
+		@Override
+		public Object get(final Object key) {
+			return (key instanceof String) ? getObject(row, (String) key) : null;
+		}
+
+		@Override
+		public boolean containsKey(final Object key) {
+			return (key instanceof String) && -1 != getColumnIndex((String) key);
+		}
+
+		@Override
+		public int size() {
+			return keys.length;
+		}
+
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			return new AbstractSet<Map.Entry<String, Object>>() {
+				@Override
+				public Iterator<Map.Entry<String, Object>> iterator() {
+					return new Iterator<Map.Entry<String, Object>>() {
+						private int column = 0;
+
+						@Override
+						public boolean hasNext() {
+							return column < keys.length;
+						}
+
+						@Override
+						public Map.Entry<String, Object> next() {
+							if (!hasNext()) {
+								throw new NoSuchElementException();
+							}
+							int index = keys[column];
+							Map.Entry<String, Object> entry = new AbstractMap.SimpleImmutableEntry<String, Object>(names[index], columns[index]
+									.get(row));
+							column++;
+							return entry;
+						}
+
+						@Override
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return keys.length;
+				}
+			};
+		}
+	}
+
+	/**
+	 * このクラスは、クエリー結果をテーブルとして参照するクラスです。
+	 */
+	private final class ColumnarTable implements Table {
+
+		private final String name;
+
+		private ColumnarTable(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getLabel() {
+			return name;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public List<Field> getFields() {
+			return fields;
+		}
+
+		@Override
+		public List<Record> getRecords() {
+			return new AbstractList<Record>() {
+				@Override
+				public Record get(final int index) {
+					checkRow(index);
+					final int row = index;
+					return new Record() {
+						@Override
+						public Object get(final String name) {
+							return getObject(row, name);
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+			};
+		}
+	}
+}
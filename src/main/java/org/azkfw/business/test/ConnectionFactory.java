@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * このクラスは、テストで使用するコネクションを生成するファクトリクラスです。
+ * <p>
+ * 独自のコネクションプールを使用する場合、このクラスを継承し引数なしのpublicコンストラクタを用意する。<br />
+ * 使用するファクトリはデータソース設定の<code>connectionFactory</code>または
+ * {@link org.azkfw.business.test.annotation.ConnectionPool}で指定する。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public abstract class ConnectionFactory {
+
+	/** ファクトリのクラス名を指定するデータソース設定のキー */
+	public static final String PROPERTY_FACTORY = "connectionFactory";
+
+	/** 事前に生成するコネクション数を指定するデータソース設定のキー */
+	public static final String PROPERTY_WARM_UP = "connectionFactory.warmUp";
+
+	private final AtomicLong borrowCount;
+
+	private final AtomicLong borrowWaitTime;
+
+	/**
+	 * コンストラクタ
+	 */
+	protected ConnectionFactory() {
+		borrowCount = new AtomicLong();
+		borrowWaitTime = new AtomicLong();
+	}
+
+	/**
+	 * ファクトリを生成する。
+	 * 
+	 * @param clazz ファクトリのクラス
+	 * @param p データソース設定
+	 * @return ファクトリ
+	 * @throws SQLException 初期化時に問題が発生した場合
+	 */
+	public static ConnectionFactory newInstance(final Class<? extends ConnectionFactory> clazz, final Properties p) throws SQLException {
+		ConnectionFactory factory = null;
+		try {
+			factory = clazz.newInstance();
+		} catch (InstantiationException ex) {
+			throw new IllegalArgumentException(String.format("Connection factory create error.[%s]", clazz.getName()), ex);
+		} catch (IllegalAccessException ex) {
+			throw new IllegalArgumentException(String.format("Connection factory create error.[%s]", clazz.getName()), ex);
+		}
+		factory.initialize(p);
+		return factory;
+	}
+
+	/**
+	 * ファクトリを初期化する。
+	 * 
+	 * @param p データソース設定
+	 * @throws SQLException 初期化時に問題が発生した場合
+	 */
+	protected abstract void initialize(final Properties p) throws SQLException;
+
+	/**
+	 * コネクションを取得する。
+	 * 
+	 * @return コネクション
+	 * @throws SQLException 取得時に問題が発生した場合
+	 */
+	public final Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		try {
+			return borrowConnection();
+		} finally {
+			borrowCount.incrementAndGet();
+			borrowWaitTime.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * プールからコネクションを借用する。
+	 * 
+	 * @return コネクション
+	 * @throws SQLException 取得時に問題が発生した場合
+	 */
+	protected abstract Connection borrowConnection() throws SQLException;
+
+	/**
+	 * ファクトリを閉じる。
+	 * 
+	 * @throws SQLException 切断時に問題が発生した場合
+	 */
+	public abstract void close() throws SQLException;
+
+	/**
+	 * 事前にコネクションを生成する。
+	 * <p>
+	 * 指定数のコネクションを同時に借用して返却することで、プール内にコネクションを用意する。
+	 * </p>
+	 * 
+	 * @param size コネクション数
+	 * @throws SQLException 取得時に問題が発生した場合
+	 */
+	public void warmUp(final int size) throws SQLException {
+		List<Connection> connections = new ArrayList<Connection>();
+		try {
+			for (int i = 0; i < size; i++) {
+				connections.add(borrowConnection());
+			}
+		} finally {
+			for (Connection connection : connections) {
+				connection.close();
+			}
+		}
+	}
+
+	/**
+	 * 統計情報を取得する。
+	 * 
+	 * @return 統計情報
+	 */
+	public ConnectionPoolStatistics getStatistics() {
+		return new ConnectionPoolStatistics(getNumActive(), getNumIdle(), getCreateCount(), borrowCount.get(), borrowWaitTime.get());
+	}
+
+	/**
+	 * 使用中のコネクション数を取得する。
+	 * 
+	 * @return コネクション数。不明な場合、<code>-1</code>
+	 */
+	protected int getNumActive() {
+		return -1;
+	}
+
+	/**
+	 * 待機中のコネクション数を取得する。
+	 * 
+	 * @return コネクション数。不明な場合、<code>-1</code>
+	 */
+	protected int getNumIdle() {
+		return -1;
+	}
+
+	/**
+	 * 生成したコネクション数を取得する。
+	 * 
+	 * @return コネクション数。不明な場合、<code>-1</code>
+	 */
+	protected long getCreateCount() {
+		return -1;
+	}
+}
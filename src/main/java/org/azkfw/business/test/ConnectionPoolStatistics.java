@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+/**
+ * このクラスは、コネクションプールの統計情報を保持するクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public final class ConnectionPoolStatistics {
+
+	private final int numActive;
+
+	private final int numIdle;
+
+	private final long createCount;
+
+	private final long borrowCount;
+
+	private final long borrowWaitTime;
+
+	/**
+	 * コンストラクタ
+	 * 
+	 * @param numActive 使用中のコネクション数
+	 * @param numIdle 待機中のコネクション数
+	 * @param createCount 生成したコネクション数
+	 * @param borrowCount 借用回数
+	 * @param borrowWaitTime 借用の待ち時間(ナノ秒)
+	 */
+	public ConnectionPoolStatistics(final int numActive, final int numIdle, final long createCount, final long borrowCount,
+			final long borrowWaitTime) {
+		this.numActive = numActive;
+		this.numIdle = numIdle;
+		this.createCount = createCount;
+		this.borrowCount = borrowCount;
+		this.borrowWaitTime = borrowWaitTime;
+	}
+
+	/**
+	 * 使用中のコネクション数を取得する。
+	 * 
+	 * @return コネクション数。不明な場合、<code>-1</code>
+	 */
+	public int getNumActive() {
+		return numActive;
+	}
+
+	/**
+	 * 待機中のコネクション数を取得する。
+	 * 
+	 * @return コネクション数。不明な場合、<code>-1</code>
+	 */
+	public int getNumIdle() {
+		return numIdle;
+	}
+
+	/**
+	 * 生成したコネクション数を取得する。
+	 * 
+	 * @return コネクション数。不明な場合、<code>-1</code>
+	 */
+	public long getCreateCount() {
+		return createCount;
+	}
+
+	/**
+	 * 借用回数を取得する。
+	 * 
+	 * @return 借用回数
+	 */
+	public long getBorrowCount() {
+		return borrowCount;
+	}
+
+	/**
+	 * 借用の待ち時間の合計を取得する。
+	 * 
+	 * @return 待ち時間(ミリ秒)
+	 */
+	public long getBorrowWaitTime() {
+		return borrowWaitTime / 1000000;
+	}
+
+	/**
+	 * 借用の平均待ち時間を取得する。
+	 * 
+	 * @return 待ち時間(ミリ秒)
+	 */
+	public double getAverageBorrowWaitTime() {
+		return (0 < borrowCount) ? (double) borrowWaitTime / (double) borrowCount / 1000000.0 : 0.0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("active=%d, idle=%d, created=%d, borrowed=%d, wait=%d ms, avg wait=%.3f ms", numActive, numIdle, createCount,
+				borrowCount, getBorrowWaitTime(), getAverageBorrowWaitTime());
+	}
+}
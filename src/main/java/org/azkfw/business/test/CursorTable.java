@@ -0,0 +1,307 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+import org.azkfw.datasource.Field;
+import org.azkfw.datasource.FieldType;
+import org.azkfw.datasource.Record;
+import org.azkfw.datasource.Table;
+
+/**
+ * このクラスは、データベースのカーソルからレコードを逐次取得するテーブルクラスです。
+ * <p>
+ * {@link #iterator()}はフェッチサイズ単位でレコードを取得するため、テーブルの件数によらず保持するレコードはフェッチサイズ分のみとなる。<br />
+ * {@link #getRecords()}を呼び出した場合、残りの全レコードをメモリ上に読み込む。<br />
+ * 使用後は{@link #close()}を呼び出すこと。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public final class CursorTable implements Table, Iterable<Record>, Closeable {
+
+	private final String name;
+
+	private final List<Field> fields;
+
+	private final Map<String, Integer> indexes;
+
+	private PreparedStatement ps;
+
+	private ResultSet rs;
+
+	private boolean iterated;
+
+	private List<Record> records;
+
+	private CursorTable(final String name, final PreparedStatement ps, final ResultSet rs) throws SQLException {
+		this.name = name;
+		this.ps = ps;
+		this.rs = rs;
+		this.fields = new ArrayList<Field>();
+		this.indexes = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
+
+		ResultSetMetaData meta = rs.getMetaData();
+		for (int i = 1; i <= meta.getColumnCount(); i++) {
+			String column = meta.getColumnLabel(i);
+			fields.add(new SimpleDatasource.SimpleField(column, column, toFieldType(meta.getColumnType(i))));
+			indexes.put(column, i - 1);
+		}
+		this.iterated = false;
+		this.records = null;
+	}
+
+	/**
+	 * カーソルを開く。
+	 * <p>
+	 * PostgreSQLでカーソルによる取得を行うため、コネクションは自動コミットを無効にしておくこと。
+	 * </p>
+	 * 
+	 * @param connection コネクション
+	 * @param name テーブル名
+	 * @param sql SQL
+	 * @param fetchSize フェッチサイズ
+	 * @return カーソルテーブル
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	static CursorTable open(final Connection connection, final String name, final String sql, final int fetchSize) throws SQLException {
+		PreparedStatement ps = null;
+		try {
+			ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize);
+			ResultSet rs = ps.executeQuery();
+			return new CursorTable(name, ps, rs);
+		} catch (SQLException ex) {
+			if (null != ps) {
+				ps.close();
+			}
+			throw ex;
+		}
+	}
+
+	@Override
+	public String getLabel() {
+		return name;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public List<Field> getFields() {
+		return Collections.unmodifiableList(fields);
+	}
+
+	/**
+	 * レコード一覧を取得する。
+	 * <p>
+	 * 初回呼び出し時に残りの全レコードをメモリ上に読み込む。
+	 * </p>
+	 */
+	@Override
+	public List<Record> getRecords() {
+		if (null == records) {
+			List<Record> list = new ArrayList<Record>();
+			Iterator<Record> it = iterator();
+			while (it.hasNext()) {
+				list.add(it.next());
+			}
+			records = Collections.unmodifiableList(list);
+		}
+		return records;
+	}
+
+	/**
+	 * レコードを逐次取得するイテレータを取得する。
+	 * <p>
+	 * カーソルは前方向のみのため、イテレータは1度のみ取得できる。
+	 * </p>
+	 */
+	@Override
+	public Iterator<Record> iterator() {
+		if (iterated) {
+			throw new IllegalStateException(String.format("Cursor already iterated.[%s]", name));
+		}
+		iterated = true;
+		return new CursorIterator();
+	}
+
+	/**
+	 * 残りの全レコードを列毎に読み込む。
+	 * 
+	 * @return クエリー結果
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	ColumnarResult readColumnar() throws SQLException {
+		if (iterated || null == rs) {
+			throw new IllegalStateException(String.format("Cursor already iterated.[%s]", name));
+		}
+		iterated = true;
+		try {
+			return ColumnarResult.read(rs);
+		} finally {
+			close();
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			if (null != rs) {
+				rs.close();
+			}
+			if (null != ps) {
+				ps.close();
+			}
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+		} finally {
+			rs = null;
+			ps = null;
+		}
+	}
+
+	/**
+	 * JDBCの型からフィールドの型を取得する。
+	 * <p>
+	 * <code>NUMERIC</code>、<code>DECIMAL</code>は{@link FieldType#Double}とする。<br />
+	 * uuid、json、bytea、配列など対応する型がない場合は{@link FieldType#String}とし、値は<code>getObject</code>の結果をそのまま保持する。
+	 * </p>
+	 * 
+	 * @param sqlType JDBCの型({@link Types})
+	 * @return フィールドの型
+	 */
+	static FieldType toFieldType(final int sqlType) {
+		switch (sqlType) {
+		case Types.DATE:
+			return FieldType.Date;
+		case Types.TIME:
+		case Types.TIMESTAMP:
+			return FieldType.Timestamp;
+		case Types.CHAR:
+		case Types.VARCHAR:
+		case Types.LONGVARCHAR:
+		case Types.NCHAR:
+		case Types.NVARCHAR:
+		case Types.LONGNVARCHAR:
+		case Types.CLOB:
+			return FieldType.String;
+		case Types.TINYINT:
+		case Types.SMALLINT:
+		case Types.INTEGER:
+			return FieldType.Integer;
+		case Types.BIGINT:
+			return FieldType.Long;
+		case Types.REAL:
+		case Types.FLOAT:
+			return FieldType.Float;
+		case Types.DOUBLE:
+		case Types.NUMERIC:
+		case Types.DECIMAL:
+			return FieldType.Double;
+		case Types.BIT:
+		case Types.BOOLEAN:
+			return FieldType.Boolean;
+		default:
+			return FieldType.String;
+		}
+	}
+
+	/**
+	 * このクラスは、カーソルのレコードを逐次取得するイテレータクラスです。
+	 */
+	private final class CursorIterator implements Iterator<Record> {
+
+		private Record next;
+
+		@Override
+		public boolean hasNext() {
+			if (null == next && null != rs) {
+				try {
+					if (rs.next()) {
+						Object[] values = new Object[fields.size()];
+						for (int i = 0; i < values.length; i++) {
+							values[i] = rs.getObject(i + 1);
+						}
+						next = new CursorRecord(values);
+					} else {
+						close();
+					}
+				} catch (SQLException ex) {
+					close();
+					throw new IllegalStateException(String.format("Cursor fetch error.[%s]", name), ex);
+				}
+			}
+			return (null != next);
+		}
+
+		@Override
+		public Record next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Record record = next;
+			next = null;
+			return record;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * このクラスは、カーソルから取得したレコードクラスです。
+	 * <p>
+	 * フィールド名は大文字小文字を区別しない。
+	 * </p>
+	 */
+	private final class CursorRecord implements Record {
+
+		private final Object[] values;
+
+		private CursorRecord(final Object[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public Object get(final String name) {
+			Integer index = indexes.get(name);
+			return (null == index) ? null : values[index];
+		}
+	}
+}
@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.dbcp.BasicDataSourceFactory;
+
+/**
+ * このクラスは、Commons DBCPによるコネクションファクトリクラスです。
+ * <p>
+ * データソースは{@link BasicDataSourceFactory#createDataSource(Properties)}で生成する。<br />
+ * DBCP 1.xは物理コネクションの生成数を公開していないため、接続URLを計数用のドライバ経由に置き換えて生成数を数える。
+ * 計数用のドライバは元の接続URLで{@link DriverManager}からコネクションを取得する。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public class DBCPConnectionFactory extends ConnectionFactory {
+
+	private BasicDataSource ds;
+
+	private String counterId;
+
+	private final AtomicLong createCount = new AtomicLong();
+
+	@Override
+	protected void initialize(final Properties p) throws SQLException {
+		Properties properties = new Properties();
+		properties.putAll(p);
+		String url = p.getProperty("url");
+		if (null != url && 0 < url.length()) {
+			counterId = CountingDriver.register(createCount);
+			properties.setProperty("url", CountingDriver.toUrl(counterId, url));
+		}
+		try {
+			ds = (BasicDataSource) BasicDataSourceFactory.createDataSource(properties);
+		} catch (SQLException ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw new SQLException("DBCP create error.", ex);
+		}
+	}
+
+	@Override
+	protected Connection borrowConnection() throws SQLException {
+		return ds.getConnection();
+	}
+
+	@Override
+	public void close() throws SQLException {
+		try {
+			ds.close();
+		} finally {
+			if (null != counterId) {
+				CountingDriver.unregister(counterId);
+			}
+		}
+	}
+
+	@Override
+	protected int getNumActive() {
+		return ds.getNumActive();
+	}
+
+	@Override
+	protected int getNumIdle() {
+		return ds.getNumIdle();
+	}
+
+	@Override
+	protected long getCreateCount() {
+		return (null == counterId) ? -1 : createCount.get();
+	}
+
+	/**
+	 * このクラスは、物理コネクションの生成数を数えるドライバクラスです。
+	 * <p>
+	 * 接続URLは<code>jdbc:azkfw-count:&lt;計数ID&gt;:&lt;元の接続URL&gt;</code>の形式とする。
+	 * </p>
+	 * 
+	 * @since 1.5.0
+	 * @version 1.5.0 2026/10/17
+	 * @author Kawakicchi
+	 */
+	static final class CountingDriver implements Driver {
+
+		private static final String PREFIX = "jdbc:azkfw-count:";
+
+		private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+		/** 計数ID → 生成数 */
+		private static final ConcurrentMap<String, AtomicLong> COUNTERS = new ConcurrentHashMap<String, AtomicLong>();
+
+		private static final CountingDriver INSTANCE = new CountingDriver();
+
+		static {
+			try {
+				DriverManager.registerDriver(INSTANCE);
+			} catch (SQLException ex) {
+				ex.printStackTrace();
+			}
+		}
+
+		static String register(final AtomicLong counter) {
+			String id = Integer.toString(SEQUENCE.incrementAndGet());
+			COUNTERS.put(id, counter);
+			return id;
+		}
+
+		static void unregister(final String id) {
+			COUNTERS.remove(id);
+		}
+
+		static String toUrl(final String id, final String url) {
+			return PREFIX + id + ":" + url;
+		}
+
+		@Override
+		public Connection connect(final String url, final Properties info) throws SQLException {
+			if (!acceptsURL(url)) {
+				return null;
+			}
+			int index = url.indexOf(':', PREFIX.length());
+			if (-1 == index) {
+				throw new SQLException(String.format("Invalid url.[%s]", url));
+			}
+			Connection connection = DriverManager.getConnection(url.substring(index + 1), info);
+			AtomicLong counter = COUNTERS.get(url.substring(PREFIX.length(), index));
+			if (null != counter) {
+				counter.incrementAndGet();
+			}
+			return connection;
+		}
+
+		@Override
+		public boolean acceptsURL(final String url) throws SQLException {
+			return null != url && url.startsWith(PREFIX);
+		}
+
+		@Override
+		public DriverPropertyInfo[] getPropertyInfo(final String url, final Properties info) throws SQLException {
+			return new DriverPropertyInfo[0];
+		}
+
+		@Override
+		public int getMajorVersion() {
+			return 1;
+		}
+
+		@Override
+		public int getMinorVersion() {
+			return 0;
+		}
+
+		@Override
+		public boolean jdbcCompliant() {
+			return false;
+		}
+
+		@Override
+		public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+			throw new SQLFeatureNotSupportedException();
+		}
+	}
+}
@@ -17,12 +17,206 @@
  */
 package org.azkfw.business.test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
+ * このクラスは、データソース比較時のオプションを保持するクラスです。
  * 
  * @since 1.0.0
- * @version 1.0.0 2015/01/29
+ * @version 1.5.0 2026/10/17
  * @author Kawakicchi
  */
 public class DatasourceAssertOption {
 
+	/** 全テーブル共通のキー */
+	private List<String> keyNames;
+
+	/** テーブル毎のキー */
+	private final Map<String, List<String>> tableKeyNames;
+
+	/** 比較対象外のフィールド */
+	private final Set<String> ignoreFieldNames;
+
+	/** 順序を無視して比較するか */
+	private boolean unordered;
+
+	/** 数値の許容誤差 */
+	private double numericTolerance;
+
+	/** 日時の許容誤差（ミリ秒） */
+	private long timestampTolerance;
+
+	/** 報告する差異の最大数 */
+	private int maxDifferences;
+
+	/**
+	 * コンストラクタ
+	 */
+	public DatasourceAssertOption() {
+		keyNames = null;
+		tableKeyNames = new HashMap<String, List<String>>();
+		ignoreFieldNames = new HashSet<String>();
+		unordered = false;
+		numericTolerance = 0.0;
+		timestampTolerance = 0;
+		maxDifferences = 10;
+	}
+
+	/**
+	 * 全テーブル共通のキーを設定する。
+	 * <p>
+	 * キーを設定しない場合、データベースの主キーを使用する。
+	 * </p>
+	 * 
+	 * @param names フィールド名
+	 * @return オプション
+	 */
+	public DatasourceAssertOption setKey(final String... names) {
+		keyNames = Arrays.asList(names);
+		return this;
+	}
+
+	/**
+	 * テーブルのキーを設定する。
+	 * 
+	 * @param table テーブル名
+	 * @param names フィールド名
+	 * @return オプション
+	 */
+	public DatasourceAssertOption setTableKey(final String table, final String... names) {
+		tableKeyNames.put(table.toLowerCase(), Arrays.asList(names));
+		return this;
+	}
+
+	/**
+	 * テーブルのキーを取得する。
+	 * 
+	 * @param table テーブル名
+	 * @return フィールド名。設定されていない場合、<code>null</code>
+	 */
+	public List<String> getKey(final String table) {
+		List<String> names = tableKeyNames.get(table.toLowerCase());
+		if (null == names) {
+			names = keyNames;
+		}
+		return (null == names) ? null : Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * 比較対象外のフィールドを追加する。
+	 * <p>
+	 * <code>フィールド名</code>で全テーブル、<code>テーブル名.フィールド名</code>で特定テーブルのフィールドを指定する。
+	 * </p>
+	 * 
+	 * @param names フィールド名
+	 * @return オプション
+	 */
+	public DatasourceAssertOption addIgnoreField(final String... names) {
+		for (String name : names) {
+			ignoreFieldNames.add(name.toLowerCase());
+		}
+		return this;
+	}
+
+	/**
+	 * 比較対象外のフィールドか判断する。
+	 * 
+	 * @param table テーブル名
+	 * @param field フィールド名
+	 * @return 比較対象外の場合、<code>true</code>
+	 */
+	public boolean isIgnoreField(final String table, final String field) {
+		String name = field.toLowerCase();
+		return ignoreFieldNames.contains(name) || ignoreFieldNames.contains(table.toLowerCase() + "." + name);
+	}
+
+	/**
+	 * 順序を無視して比較するか設定する。
+	 * <p>
+	 * キーがある場合は常にキーで突き合わせる。キーがない場合、<code>true</code>ならレコード全体の値で突き合わせ、
+	 * <code>false</code>なら先頭から順に比較する。
+	 * </p>
+	 * 
+	 * @param unordered 順序を無視する場合、<code>true</code>
+	 * @return オプション
+	 */
+	public DatasourceAssertOption setUnordered(final boolean unordered) {
+		this.unordered = unordered;
+		return this;
+	}
+
+	/**
+	 * 順序を無視して比較するか判断する。
+	 * 
+	 * @return 順序を無視する場合、<code>true</code>
+	 */
+	public boolean isUnordered() {
+		return unordered;
+	}
+
+	/**
+	 * 数値の許容誤差を設定する。
+	 * 
+	 * @param tolerance 許容誤差
+	 * @return オプション
+	 */
+	public DatasourceAssertOption setNumericTolerance(final double tolerance) {
+		this.numericTolerance = tolerance;
+		return this;
+	}
+
+	/**
+	 * 数値の許容誤差を取得する。
+	 * 
+	 * @return 許容誤差
+	 */
+	public double getNumericTolerance() {
+		return numericTolerance;
+	}
+
+	/**
+	 * 日時の許容誤差を設定する。
+	 * 
+	 * @param tolerance 許容誤差（ミリ秒）
+	 * @return オプション
+	 */
+	public DatasourceAssertOption setTimestampTolerance(final long tolerance) {
+		this.timestampTolerance = tolerance;
+		return this;
+	}
+
+	/**
+	 * 日時の許容誤差を取得する。
+	 * 
+	 * @return 許容誤差（ミリ秒）
+	 */
+	public long getTimestampTolerance() {
+		return timestampTolerance;
+	}
+
+	/**
+	 * 報告する差異の最大数を設定する。
+	 * 
+	 * @param max 最大数
+	 * @return オプション
+	 */
+	public DatasourceAssertOption setMaxDifferences(final int max) {
+		this.maxDifferences = max;
+		return this;
+	}
+
+	/**
+	 * 報告する差異の最大数を取得する。
+	 * 
+	 * @return 最大数
+	 */
+	public int getMaxDifferences() {
+		return maxDifferences;
+	}
 }
@@ -0,0 +1,319 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.lang.ref.SoftReference;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.azkfw.datasource.Datasource;
+import org.azkfw.datasource.Field;
+import org.azkfw.datasource.Record;
+import org.azkfw.datasource.Table;
+
+/**
+ * このクラスは、読み込んだデータソースを保持する上限付きのキャッシュクラスです。
+ * <p>
+ * キャッシュ方式はシステムプロパティ<code>azkfw.test.datasource.cache.policy</code>で指定する。
+ * <ul>
+ * <li><code>size</code> - 推定サイズの合計が上限を超えた場合、最も古く参照されたデータソースから破棄する（既定）</li>
+ * <li><code>soft</code> - ソフト参照で保持し、メモリ不足時にガベージコレクタが破棄する</li>
+ * <li><code>unbounded</code> - 破棄しない</li>
+ * </ul>
+ * 上限サイズはシステムプロパティ<code>azkfw.test.datasource.cache.maxSize</code>にバイト数（<code>k</code>,<code>m</code>,<code>g</code>の接尾辞可）で指定する。
+ * 省略時は最大ヒープサイズの1/4とする。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public final class DatasourceCache {
+
+	/**
+	 * このクラスは、キャッシュ方式を定義した列挙型です。
+	 */
+	public enum Policy {
+		/** 推定サイズによるLRU */
+		SIZE,
+		/** ソフト参照 */
+		SOFT,
+		/** 上限なし */
+		UNBOUNDED
+	}
+
+	private final Policy policy;
+
+	private final long maxSize;
+
+	private final LinkedHashMap<String, Entry> entries;
+
+	private long size;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * コンストラクタ
+	 * 
+	 * @param policy キャッシュ方式
+	 * @param maxSize 上限サイズ（バイト）
+	 */
+	public DatasourceCache(final Policy policy, final long maxSize) {
+		this.policy = policy;
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+		this.size = 0;
+	}
+
+	/**
+	 * システムプロパティの設定でキャッシュを生成する。
+	 * 
+	 * @return キャッシュ
+	 */
+	public static DatasourceCache create() {
+		Policy policy = Policy.SIZE;
+		String value = System.getProperty("azkfw.test.datasource.cache.policy");
+		if (null != value && 0 < value.length()) {
+			policy = Policy.valueOf(value.trim().toUpperCase());
+		}
+		long maxSize = Runtime.getRuntime().maxMemory() / 4;
+		value = System.getProperty("azkfw.test.datasource.cache.maxSize");
+		if (null != value && 0 < value.length()) {
+			maxSize = parseSize(value.trim());
+		}
+		return new DatasourceCache(policy, maxSize);
+	}
+
+	/**
+	 * データソースを取得する。
+	 * 
+	 * @param name 名前
+	 * @return データソース。存在しない場合、<code>null</code>
+	 */
+	public synchronized Datasource get(final String name) {
+		Entry entry = entries.get(name);
+		Datasource datasource = (null == entry) ? null : entry.get();
+		if (null == datasource) {
+			if (null != entry) {
+				// ガベージコレクタにより破棄
+				remove(name);
+				evictionCount.incrementAndGet();
+			}
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+		return datasource;
+	}
+
+	/**
+	 * データソースを登録する。
+	 * 
+	 * @param name 名前
+	 * @param datasource データソース
+	 */
+	public synchronized void put(final String name, final Datasource datasource) {
+		remove(name);
+
+		long estimate = (Policy.SIZE == policy) ? estimateSize(datasource) : 0;
+		if (Policy.SIZE == policy && maxSize < estimate) {
+			evictionCount.incrementAndGet();
+			return;
+		}
+		entries.put(name, new Entry(datasource, estimate, Policy.SOFT == policy));
+		size += estimate;
+
+		if (Policy.SIZE == policy) {
+			Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+			while (maxSize < size && it.hasNext()) {
+				Map.Entry<String, Entry> e = it.next();
+				if (name.equals(e.getKey())) {
+					continue;
+				}
+				size -= e.getValue().size;
+				it.remove();
+				evictionCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * キャッシュをクリアする。
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		size = 0;
+	}
+
+	/**
+	 * キャッシュ方式を取得する。
+	 * 
+	 * @return キャッシュ方式
+	 */
+	public Policy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * 上限サイズを取得する。
+	 * 
+	 * @return 上限サイズ（バイト）
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * 保持しているデータソースの推定サイズを取得する。
+	 * <p>
+	 * キャッシュ方式が<code>size</code>の場合のみ有効。
+	 * </p>
+	 * 
+	 * @return 推定サイズ（バイト）
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * 保持しているデータソース数を取得する。
+	 * 
+	 * @return データソース数
+	 */
+	public synchronized int getCount() {
+		return entries.size();
+	}
+
+	/**
+	 * ヒット数を取得する。
+	 * 
+	 * @return ヒット数
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * ミス数を取得する。
+	 * 
+	 * @return ミス数
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * 破棄数を取得する。
+	 * 
+	 * @return 破棄数
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("policy=%s, count=%d, size=%d, maxSize=%d, hit=%d, miss=%d, eviction=%d", policy, getCount(), getSize(), maxSize,
+				getHitCount(), getMissCount(), getEvictionCount());
+	}
+
+	private void remove(final String name) {
+		Entry entry = entries.remove(name);
+		if (null != entry) {
+			size -= entry.size;
+		}
+	}
+
+	/**
+	 * データソースの推定サイズを取得する。
+	 * 
+	 * @param datasource データソース
+	 * @return 推定サイズ（バイト）
+	 */
+	static long estimateSize(final Datasource datasource) {
+		long size = 64;
+		for (Table table : datasource.getTables()) {
+			List<Field> fields = table.getFields();
+			List<Record> records = table.getRecords();
+			size += 128 + fields.size() * 64L;
+			for (Record record : records) {
+				size += 32 + 4L * fields.size();
+				for (Field field : fields) {
+					size += estimateSize(record.get(field.getName()));
+				}
+			}
+		}
+		return size;
+	}
+
+	private static long estimateSize(final Object value) {
+		if (null == value) {
+			return 0;
+		} else if (value instanceof String) {
+			return 40 + 2L * ((String) value).length();
+		} else if (value instanceof BigDecimal) {
+			return 64;
+		} else if (value instanceof byte[]) {
+			return 16 + ((byte[]) value).length;
+		} else if (value instanceof java.util.Date) {
+			return 32;
+		}
+		return 24;
+	}
+
+	private static long parseSize(final String value) {
+		String s = value.toLowerCase();
+		long unit = 1;
+		if (s.endsWith("k")) {
+			unit = 1024L;
+		} else if (s.endsWith("m")) {
+			unit = 1024L * 1024L;
+		} else if (s.endsWith("g")) {
+			unit = 1024L * 1024L * 1024L;
+		}
+		if (1 != unit) {
+			s = s.substring(0, s.length() - 1);
+		}
+		return Long.parseLong(s.trim()) * unit;
+	}
+
+	private static final class Entry {
+
+		private final Datasource datasource;
+
+		private final SoftReference<Datasource> reference;
+
+		private final long size;
+
+		private Entry(final Datasource datasource, final long size, final boolean soft) {
+			this.datasource = soft ? null : datasource;
+			this.reference = soft ? new SoftReference<Datasource>(datasource) : null;
+			this.size = size;
+		}
+
+		private Datasource get() {
+			return (null != reference) ? reference.get() : datasource;
+		}
+	}
+}
@@ -0,0 +1,399 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.azkfw.datasource.Datasource;
+import org.azkfw.datasource.Field;
+import org.azkfw.datasource.FieldType;
+import org.azkfw.datasource.Record;
+import org.azkfw.datasource.Table;
+
+/**
+ * このクラスは、解析済みのデータソースをファイルにキャッシュするクラスです。
+ * <p>
+ * キャッシュはデータソースファイルの内容のハッシュ値をキーとし、フォーク間・実行間で共有する。<br />
+ * キャッシュディレクトリはシステムプロパティ<code>azkfw.test.datasource.cache.dir</code>で変更でき、
+ * <code>azkfw.test.datasource.cache</code>に<code>false</code>を指定すると無効になる。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class DatasourceFileCache {
+
+	private static final int MAGIC = 0x415a4453; // AZDS
+
+	private static final int VERSION = 1;
+
+	private static final byte NULL = 0;
+	private static final byte STRING = 1;
+	private static final byte INTEGER = 2;
+	private static final byte LONG = 3;
+	private static final byte DOUBLE = 4;
+	private static final byte FLOAT = 5;
+	private static final byte BIG_DECIMAL = 6;
+	private static final byte BOOLEAN = 7;
+	private static final byte SQL_DATE = 8;
+	private static final byte TIMESTAMP = 9;
+	private static final byte DATE = 10;
+	private static final byte TIME = 11;
+	private static final byte BYTES = 12;
+	private static final byte SHORT = 13;
+	private static final byte BIG_INTEGER = 14;
+	private static final byte SERIALIZABLE = 99;
+
+	private DatasourceFileCache() {
+	}
+
+	/**
+	 * キャッシュが有効か判断する。
+	 * 
+	 * @return 有効な場合、<code>true</code>
+	 */
+	public static boolean isEnabled() {
+		return !"false".equalsIgnoreCase(System.getProperty("azkfw.test.datasource.cache"));
+	}
+
+	/**
+	 * データソースファイルの内容からキーを取得する。
+	 * 
+	 * @param name 名前
+	 * @param content データソースファイルの内容
+	 * @return キー
+	 */
+	public static String getKey(final String name, final byte[] content) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-1");
+			md.update(name.getBytes("UTF-8"));
+			md.update((byte) 0);
+			byte[] digest = md.digest(content);
+			StringBuilder s = new StringBuilder();
+			for (byte b : digest) {
+				s.append(String.format("%02x", b & 0xff));
+			}
+			return s.toString();
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		} catch (UnsupportedEncodingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * キャッシュからデータソースを読み込む。
+	 * 
+	 * @param key キー
+	 * @return データソース。キャッシュが存在しない場合、<code>null</code>
+	 * @throws IOException 入出力時に問題が発生した場合、またはキャッシュが壊れている場合
+	 */
+	public static Datasource load(final String key) throws IOException {
+		File file = getFile(key);
+		if (!file.isFile()) {
+			return null;
+		}
+
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (MAGIC != in.readInt() || VERSION != in.readInt()) {
+				return null;
+			}
+			return readDatasource(in);
+		} catch (RuntimeException ex) {
+			// 未知の型名(FieldType.valueOf)や不正な長さ
+			throw new IOException(String.format("Corrupt cache.[%s]", file.getPath()), ex);
+		} finally {
+			if (null != in) {
+				in.close();
+			}
+		}
+	}
+
+	/**
+	 * データソースをキャッシュに書き込む。
+	 * <p>
+	 * 一時ファイルに書き込んだ後に名前を変更するため、他のフォークが同時に書き込んでも壊れたキャッシュは残らない。
+	 * </p>
+	 * 
+	 * @param key キー
+	 * @param datasource データソース
+	 * @throws IOException 入出力時に問題が発生した場合
+	 */
+	public static void store(final String key, final Datasource datasource) throws IOException {
+		File file = getFile(key);
+		File dir = file.getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+			throw new IOException(String.format("Cache directory create error.[%s]", dir.getAbsolutePath()));
+		}
+
+		File tmp = File.createTempFile(key, ".tmp", dir);
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeDatasource(out, datasource);
+			out.close();
+			out = null;
+
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			if (null != out) {
+				out.close();
+			}
+			if (tmp.exists()) {
+				tmp.delete();
+			}
+		}
+	}
+
+	private static File getFile(final String key) {
+		String dir = System.getProperty("azkfw.test.datasource.cache.dir", "target/azuki-datasource-cache");
+		return new File(dir, key + ".dat");
+	}
+
+	private static void writeDatasource(final DataOutputStream out, final Datasource datasource) throws IOException {
+		writeString(out, datasource.getName());
+		List<Table> tables = datasource.getTables();
+		out.writeInt(tables.size());
+		for (Table table : tables) {
+			writeString(out, table.getLabel());
+			writeString(out, table.getName());
+
+			List<Field> fields = table.getFields();
+			out.writeInt(fields.size());
+			for (Field field : fields) {
+				writeString(out, field.getLabel());
+				writeString(out, field.getName());
+				writeString(out, (null == field.getType()) ? null : field.getType().name());
+			}
+
+			List<Record> records = table.getRecords();
+			out.writeInt(records.size());
+			for (Record record : records) {
+				for (Field field : fields) {
+					writeValue(out, record.get(field.getName()));
+				}
+			}
+		}
+	}
+
+	private static Datasource readDatasource(final DataInputStream in) throws IOException {
+		SimpleDatasource datasource = new SimpleDatasource(readString(in));
+		int tableSize = in.readInt();
+		for (int i = 0; i < tableSize; i++) {
+			String label = readString(in);
+			String name = readString(in);
+
+			int fieldSize = in.readInt();
+			List<Field> fields = new ArrayList<Field>(fieldSize);
+			for (int j = 0; j < fieldSize; j++) {
+				String fieldLabel = readString(in);
+				String fieldName = readString(in);
+				String type = readString(in);
+				fields.add(new SimpleDatasource.SimpleField(fieldLabel, fieldName, (null == type) ? null : FieldType.valueOf(type)));
+			}
+
+			SimpleDatasource.SimpleTable table = new SimpleDatasource.SimpleTable(label, name, fields);
+			int recordSize = in.readInt();
+			for (int j = 0; j < recordSize; j++) {
+				Object[] values = new Object[fieldSize];
+				for (int k = 0; k < fieldSize; k++) {
+					values[k] = readValue(in);
+				}
+				table.addRecord(values);
+			}
+			datasource.addTable(table);
+		}
+		return datasource;
+	}
+
+	private static void writeValue(final DataOutputStream out, final Object value) throws IOException {
+		if (null == value) {
+			out.writeByte(NULL);
+		} else if (value instanceof String) {
+			out.writeByte(STRING);
+			writeString(out, (String) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		} else if (value instanceof Short) {
+			out.writeByte(SHORT);
+			out.writeShort((Short) value);
+		} else if (value instanceof BigDecimal) {
+			out.writeByte(BIG_DECIMAL);
+			writeString(out, value.toString());
+		} else if (value instanceof BigInteger) {
+			out.writeByte(BIG_INTEGER);
+			writeString(out, value.toString());
+		} else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof java.sql.Date) {
+			out.writeByte(SQL_DATE);
+			out.writeLong(((java.sql.Date) value).getTime());
+		} else if (value instanceof Timestamp) {
+			out.writeByte(TIMESTAMP);
+			out.writeLong(((Timestamp) value).getTime());
+			out.writeInt(((Timestamp) value).getNanos());
+		} else if (value instanceof Time) {
+			out.writeByte(TIME);
+			out.writeLong(((Time) value).getTime());
+		} else if (value instanceof java.util.Date) {
+			out.writeByte(DATE);
+			out.writeLong(((java.util.Date) value).getTime());
+		} else if (value instanceof byte[]) {
+			out.writeByte(BYTES);
+			out.writeInt(((byte[]) value).length);
+			out.write((byte[]) value);
+		} else if (value instanceof Serializable) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream oos = new ObjectOutputStream(bytes);
+			oos.writeObject(value);
+			oos.close();
+			out.writeByte(SERIALIZABLE);
+			out.writeInt(bytes.size());
+			bytes.writeTo(out);
+		} else {
+			throw new IOException(String.format("Unsupported value type.[%s]", value.getClass().getName()));
+		}
+	}
+
+	private static Object readValue(final DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+		case NULL:
+			return null;
+		case STRING:
+			return readString(in);
+		case INTEGER:
+			return in.readInt();
+		case LONG:
+			return in.readLong();
+		case DOUBLE:
+			return in.readDouble();
+		case FLOAT:
+			return in.readFloat();
+		case SHORT:
+			return in.readShort();
+		case BIG_DECIMAL:
+			return new BigDecimal(readString(in));
+		case BIG_INTEGER:
+			return new BigInteger(readString(in));
+		case BOOLEAN:
+			return in.readBoolean();
+		case SQL_DATE:
+			return new java.sql.Date(in.readLong());
+		case TIMESTAMP: {
+			Timestamp ts = new Timestamp(in.readLong());
+			ts.setNanos(in.readInt());
+			return ts;
+		}
+		case TIME:
+			return new Time(in.readLong());
+		case DATE:
+			return new java.util.Date(in.readLong());
+		case BYTES: {
+			byte[] bytes = new byte[readLength(in)];
+			in.readFully(bytes);
+			return bytes;
+		}
+		case SERIALIZABLE: {
+			byte[] bytes = new byte[readLength(in)];
+			in.readFully(bytes);
+			ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+			try {
+				return ois.readObject();
+			} catch (ClassNotFoundException ex) {
+				throw new IOException(ex);
+			} finally {
+				ois.close();
+			}
+		}
+		default:
+			throw new IOException(String.format("Unknown value type.[%d]", type));
+		}
+	}
+
+	private static void writeString(final DataOutputStream out, final String string) throws IOException {
+		if (null == string) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = string.getBytes("UTF-8");
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static String readString(final DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (-1 == length) {
+			return null;
+		}
+		byte[] bytes = new byte[checkLength(in, length)];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	private static int readLength(final DataInputStream in) throws IOException {
+		return checkLength(in, in.readInt());
+	}
+
+	private static int checkLength(final DataInputStream in, final int length) throws IOException {
+		// 壊れたキャッシュで巨大な配列を確保しないよう、残りのサイズを超える長さはエラーとする
+		if (length < 0 || in.available() < length) {
+			throw new IOException(String.format("Invalid length.[%d]", length));
+		}
+		return length;
+	}
+}
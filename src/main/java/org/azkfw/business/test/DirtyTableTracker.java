@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.azkfw.datasource.Table;
+
+/**
+ * このクラスは、トリガーによりテストで更新されたテーブルを記録するクラスです。
+ * <p>
+ * 更新されたテーブル名は、ログを出力しないテーブル<code>azkfw_dirty_table</code>に記録する。
+ * トリガーと記録用テーブルは{@link #uninstall(Connection, List)}で削除する。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class DirtyTableTracker {
+
+	private static final String TABLE = "azkfw_dirty_table";
+
+	private static final String FUNCTION = "azkfw_mark_dirty_table";
+
+	private static final String TRIGGER = "azkfw_dirty_table_trigger";
+
+	private DirtyTableTracker() {
+	}
+
+	/**
+	 * 更新を記録するトリガーを作成する。
+	 * 
+	 * @param connection コネクション
+	 * @param tables テーブル一覧
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static void install(final Connection connection, final List<Table> tables) throws SQLException {
+		Statement stmt = null;
+		try {
+			stmt = connection.createStatement();
+			stmt.executeUpdate(String.format("CREATE UNLOGGED TABLE IF NOT EXISTS %s (table_name varchar(128) NOT NULL)", TABLE));
+			stmt.executeUpdate(String.format("CREATE OR REPLACE FUNCTION %s() RETURNS trigger AS $$ BEGIN"
+					+ " INSERT INTO %s (table_name) SELECT TG_TABLE_NAME WHERE NOT EXISTS (SELECT 1 FROM %s WHERE table_name = TG_TABLE_NAME);"
+					+ " RETURN NULL; END; $$ LANGUAGE plpgsql", FUNCTION, TABLE, TABLE));
+			for (Table table : tables) {
+				stmt.executeUpdate(String.format("DROP TRIGGER IF EXISTS %s ON %s", TRIGGER, table.getName()));
+				stmt.executeUpdate(String.format("CREATE TRIGGER %s AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON %s"
+						+ " FOR EACH STATEMENT EXECUTE PROCEDURE %s()", TRIGGER, table.getName(), FUNCTION));
+			}
+		} finally {
+			if (null != stmt) {
+				stmt.close();
+			}
+		}
+	}
+
+	/**
+	 * 更新を記録するトリガーと記録用テーブルを削除する。
+	 * <p>
+	 * テーブル毎に削除するため、自動コミットのコネクションで実行すること。
+	 * </p>
+	 * 
+	 * @param connection コネクション
+	 * @param tables テーブル一覧
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static void uninstall(final Connection connection, final List<Table> tables) throws SQLException {
+		Statement stmt = null;
+		try {
+			stmt = connection.createStatement();
+			for (Table table : tables) {
+				try {
+					stmt.executeUpdate(String.format("DROP TRIGGER IF EXISTS %s ON %s", TRIGGER, table.getName()));
+				} catch (SQLException ex) {
+					// テーブルが削除済み
+				}
+			}
+			stmt.executeUpdate(String.format("DROP FUNCTION IF EXISTS %s() CASCADE", FUNCTION));
+			stmt.executeUpdate(String.format("DROP TABLE IF EXISTS %s", TABLE));
+		} finally {
+			if (null != stmt) {
+				stmt.close();
+			}
+		}
+	}
+
+	/**
+	 * 更新されたテーブル名を取得する。
+	 * 
+	 * @param connection コネクション
+	 * @return テーブル名（小文字）
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static Set<String> getDirtyTables(final Connection connection) throws SQLException {
+		Set<String> names = new HashSet<String>();
+		Statement stmt = null;
+		ResultSet rs = null;
+		try {
+			stmt = connection.createStatement();
+			rs = stmt.executeQuery(String.format("SELECT DISTINCT table_name FROM %s", TABLE));
+			while (rs.next()) {
+				names.add(rs.getString(1).toLowerCase());
+			}
+		} finally {
+			if (null != rs) {
+				rs.close();
+			}
+			if (null != stmt) {
+				stmt.close();
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * 更新の記録を削除する。
+	 * 
+	 * @param connection コネクション
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static void clear(final Connection connection) throws SQLException {
+		Statement stmt = null;
+		try {
+			stmt = connection.createStatement();
+			stmt.executeUpdate(String.format("DELETE FROM %s", TABLE));
+		} finally {
+			if (null != stmt) {
+				stmt.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * このクラスは、DynamicSQLの結果をカーソルで逐次取得するクラスです。
+ * <p>
+ * フェッチサイズ単位でレコードを取得するため、結果の件数によらず保持するレコードはフェッチサイズ分のみとなる。<br />
+ * 全レコードを取得した時点でカーソルを閉じる。カーソルを閉じた際の処理は{@link CloseListener}で受け取れる。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class DynamicSQLCursor implements Iterator<Map<String, Object>>, Closeable {
+
+	private final String sql;
+
+	private final String[] labels;
+
+	private PreparedStatement ps;
+
+	private ResultSet rs;
+
+	private Map<String, Object> next;
+
+	private CloseListener listener;
+
+	private DynamicSQLCursor(final String sql, final PreparedStatement ps, final ResultSet rs) throws SQLException {
+		this.sql = sql;
+		this.ps = ps;
+		this.rs = rs;
+
+		ResultSetMetaData meta = rs.getMetaData();
+		labels = new String[meta.getColumnCount()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = meta.getColumnLabel(i + 1);
+		}
+	}
+
+	/**
+	 * カーソルを開く。
+	 * <p>
+	 * PostgreSQLでカーソルによる取得を行うため、コネクションは自動コミットを無効にしておくこと。
+	 * </p>
+	 * 
+	 * @param connection コネクション
+	 * @param sql SQL
+	 * @param parameters パラメータ
+	 * @param fetchSize フェッチサイズ
+	 * @return カーソル
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static DynamicSQLCursor open(final Connection connection, final String sql, final List<Object> parameters, final int fetchSize)
+			throws SQLException {
+		PreparedStatement ps = null;
+		try {
+			ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize);
+			if (null != parameters) {
+				for (int i = 0; i < parameters.size(); i++) {
+					ps.setObject(i + 1, parameters.get(i));
+				}
+			}
+			ResultSet rs = ps.executeQuery();
+			return new DynamicSQLCursor(sql, ps, rs);
+		} catch (SQLException ex) {
+			if (null != ps) {
+				ps.close();
+			}
+			throw ex;
+		}
+	}
+
+	/**
+	 * カーソルを閉じた際に通知するリスナーを設定する。
+	 * 
+	 * @param listener リスナー
+	 */
+	public void setCloseListener(final CloseListener listener) {
+		this.listener = listener;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (null == next && null != rs) {
+			try {
+				if (rs.next()) {
+					Map<String, Object> record = new LinkedHashMap<String, Object>(labels.length * 4 / 3 + 1);
+					for (int i = 0; i < labels.length; i++) {
+						record.put(labels[i], rs.getObject(i + 1));
+					}
+					next = record;
+				} else {
+					close();
+				}
+			} catch (SQLException ex) {
+				close();
+				throw new IllegalStateException(String.format("Cursor fetch error.[%s]", sql), ex);
+			}
+		}
+		return (null != next);
+	}
+
+	@Override
+	public Map<String, Object> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Map<String, Object> record = next;
+		next = null;
+		return record;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * 残りの全レコードを列毎に読み込む。
+	 * 
+	 * @return クエリー結果
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public ColumnarResult readColumnar() throws SQLException {
+		if (null != next || null == rs) {
+			throw new IllegalStateException(String.format("Cursor already iterated.[%s]", sql));
+		}
+		try {
+			return ColumnarResult.read(rs);
+		} finally {
+			close();
+		}
+	}
+
+	@Override
+	public void close() {
+		if (null == rs && null == ps) {
+			return;
+		}
+		try {
+			if (null != rs) {
+				rs.close();
+			}
+			if (null != ps) {
+				ps.close();
+			}
+		} catch (SQLException ex) {
+			ex.printStackTrace();
+		} finally {
+			rs = null;
+			ps = null;
+			if (null != listener) {
+				CloseListener l = listener;
+				listener = null;
+				l.closed(this);
+			}
+		}
+	}
+
+	/**
+	 * このインターフェースは、カーソルを閉じた際の通知を受け取るインターフェースです。
+	 */
+	public static interface CloseListener {
+
+		/**
+		 * カーソルを閉じた際に呼び出される。
+		 * <p>
+		 * 全レコードを取得してカーソルが自ら閉じた場合も呼び出される。
+		 * </p>
+		 * 
+		 * @param cursor カーソル
+		 */
+		void closed(DynamicSQLCursor cursor);
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import org.azkfw.datasource.FieldType;
+
+/**
+ * このクラスは、Excel形式のデータソースファイルのシート構成を定義するクラスです。
+ * <p>
+ * {@link org.azkfw.datasource.excel.ExcelDatasourceFactory}と同じ構成で、シート名をテーブル名とし、
+ * 1行目をラベル、2行目を名前、3行目を型、4行目以降をレコードとする。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class ExcelSheetLayout {
+
+	/** ラベル行(1始まり) */
+	public static final int LABEL_ROW = 1;
+
+	/** 名前行(1始まり) */
+	public static final int NAME_ROW = 2;
+
+	/** 型行(1始まり) */
+	public static final int TYPE_ROW = 3;
+
+	private ExcelSheetLayout() {
+	}
+
+	/**
+	 * 型行の値からフィールドの型を取得する。
+	 * 
+	 * @param name 型名
+	 * @return 型。型名が空の場合、<code>null</code>
+	 * @throws IllegalArgumentException 型名に対応する型がない場合
+	 */
+	public static FieldType toFieldType(final String name) {
+		if (null == name || 0 == name.trim().length()) {
+			return null;
+		}
+		String s = name.trim().toLowerCase();
+		if ("string".equals(s)) {
+			return FieldType.String;
+		} else if ("boolean".equals(s)) {
+			return FieldType.Boolean;
+		} else if ("integer".equals(s)) {
+			return FieldType.Integer;
+		} else if ("long".equals(s)) {
+			return FieldType.Long;
+		} else if ("float".equals(s)) {
+			return FieldType.Float;
+		} else if ("double".equals(s)) {
+			return FieldType.Double;
+		} else if ("timestamp".equals(s)) {
+			return FieldType.Timestamp;
+		} else if ("date".equals(s)) {
+			return FieldType.Date;
+		}
+		throw new IllegalArgumentException(String.format("Unsupported field type.[%s]", name));
+	}
+}
@@ -0,0 +1,267 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * このクラスは、JSONを扱うユーティリティクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class Json {
+
+	private Json() {
+	}
+
+	/**
+	 * 文字列をJSONの文字列リテラルに変換する。
+	 * 
+	 * @param string 文字列
+	 * @return 文字列リテラル。<code>null</code>の場合、<code>null</code>リテラル
+	 */
+	public static String quote(final String string) {
+		if (null == string) {
+			return "null";
+		}
+		StringBuilder s = new StringBuilder(string.length() + 2);
+		s.append('"');
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			switch (c) {
+			case '"':
+				s.append("\\\"");
+				break;
+			case '\\':
+				s.append("\\\\");
+				break;
+			case '\n':
+				s.append("\\n");
+				break;
+			case '\r':
+				s.append("\\r");
+				break;
+			case '\t':
+				s.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					s.append(String.format("\\u%04x", (int) c));
+				} else {
+					s.append(c);
+				}
+			}
+		}
+		s.append('"');
+		return s.toString();
+	}
+
+	/**
+	 * JSONを解析する。
+	 * <p>
+	 * オブジェクトは{@link Map}、配列は{@link List}、数値は{@link BigDecimal}、真偽値は{@link Boolean}に変換する。
+	 * </p>
+	 * 
+	 * @param json JSON
+	 * @return 解析結果
+	 * @throws IllegalArgumentException JSONの形式が不正な場合
+	 */
+	public static Object parse(final String json) {
+		Parser parser = new Parser(json);
+		Object value = parser.readValue();
+		parser.skipWhitespace();
+		if (parser.index < json.length()) {
+			throw parser.error("Unexpected character");
+		}
+		return value;
+	}
+
+	/**
+	 * このクラスは、JSONの解析を行うクラスです。
+	 */
+	private static final class Parser {
+
+		private final String json;
+
+		private int index;
+
+		private Parser(final String json) {
+			this.json = json;
+			this.index = 0;
+		}
+
+		private Object readValue() {
+			skipWhitespace();
+			if (json.length() <= index) {
+				throw error("Unexpected end");
+			}
+			char c = json.charAt(index);
+			if ('{' == c) {
+				return readObject();
+			} else if ('[' == c) {
+				return readArray();
+			} else if ('"' == c) {
+				return readString();
+			} else if (json.startsWith("true", index)) {
+				index += 4;
+				return Boolean.TRUE;
+			} else if (json.startsWith("false", index)) {
+				index += 5;
+				return Boolean.FALSE;
+			} else if (json.startsWith("null", index)) {
+				index += 4;
+				return null;
+			}
+			return readNumber();
+		}
+
+		private Map<String, Object> readObject() {
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			index++;
+			skipWhitespace();
+			if (index < json.length() && '}' == json.charAt(index)) {
+				index++;
+				return map;
+			}
+			while (true) {
+				skipWhitespace();
+				if (json.length() <= index || '"' != json.charAt(index)) {
+					throw error("Expected string");
+				}
+				String key = readString();
+				expect(':');
+				map.put(key, readValue());
+				skipWhitespace();
+				if (index < json.length() && ',' == json.charAt(index)) {
+					index++;
+				} else {
+					expect('}');
+					return map;
+				}
+			}
+		}
+
+		private List<Object> readArray() {
+			List<Object> list = new ArrayList<Object>();
+			index++;
+			skipWhitespace();
+			if (index < json.length() && ']' == json.charAt(index)) {
+				index++;
+				return list;
+			}
+			while (true) {
+				list.add(readValue());
+				skipWhitespace();
+				if (index < json.length() && ',' == json.charAt(index)) {
+					index++;
+				} else {
+					expect(']');
+					return list;
+				}
+			}
+		}
+
+		private String readString() {
+			StringBuilder s = new StringBuilder();
+			index++;
+			while (index < json.length()) {
+				char c = json.charAt(index++);
+				if ('"' == c) {
+					return s.toString();
+				} else if ('\\' == c) {
+					if (json.length() <= index) {
+						break;
+					}
+					char e = json.charAt(index++);
+					switch (e) {
+					case 'b':
+						s.append('\b');
+						break;
+					case 'f':
+						s.append('\f');
+						break;
+					case 'n':
+						s.append('\n');
+						break;
+					case 'r':
+						s.append('\r');
+						break;
+					case 't':
+						s.append('\t');
+						break;
+					case 'u':
+						if (json.length() < index + 4) {
+							throw error("Invalid escape");
+						}
+						try {
+							s.append((char) Integer.parseInt(json.substring(index, index + 4), 16));
+						} catch (NumberFormatException ex) {
+							throw error("Invalid escape");
+						}
+						index += 4;
+						break;
+					default:
+						s.append(e);
+					}
+				} else {
+					s.append(c);
+				}
+			}
+			throw error("Unterminated string");
+		}
+
+		private BigDecimal readNumber() {
+			int start = index;
+			while (index < json.length() && 0 <= "+-0123456789.eE".indexOf(json.charAt(index))) {
+				index++;
+			}
+			if (start == index) {
+				throw error("Unexpected character");
+			}
+			try {
+				return new BigDecimal(json.substring(start, index));
+			} catch (NumberFormatException ex) {
+				throw error("Invalid number");
+			}
+		}
+
+		private void expect(final char c) {
+			skipWhitespace();
+			if (json.length() <= index || c != json.charAt(index)) {
+				throw error(String.format("Expected '%c'", c));
+			}
+			index++;
+		}
+
+		private void skipWhitespace() {
+			while (index < json.length() && Character.isWhitespace(json.charAt(index))) {
+				index++;
+			}
+		}
+
+		private IllegalArgumentException error(final String message) {
+			return new IllegalArgumentException(String.format("JSON parse error.[%s, %d]", message, index));
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * このクラスは、実行計画のベースラインを管理するクラスです。
+ * <p>
+ * ベースラインは<code>&lt;ディレクトリ&gt;/&lt;テストクラス名&gt;/&lt;名前&gt;.json</code>に実行計画のJSONとして保存する。<br />
+ * ディレクトリはシステムプロパティ<code>azkfw.test.plan.baseline.dir</code>で変更できる。
+ * ベースラインは<code>azkfw.test.plan.baseline.update</code>に<code>true</code>を指定した場合のみ作成・上書きし、通常のテスト実行では書き込まない。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class PlanBaseline {
+
+	private PlanBaseline() {
+	}
+
+	/**
+	 * ベースラインを更新するか判断する。
+	 * 
+	 * @return 更新する場合、<code>true</code>
+	 */
+	public static boolean isUpdate() {
+		return "true".equalsIgnoreCase(System.getProperty("azkfw.test.plan.baseline.update"));
+	}
+
+	/**
+	 * ベースラインのファイルを取得する。
+	 * 
+	 * @param clazz テストクラス
+	 * @param name 名前
+	 * @return ファイル
+	 */
+	public static File getFile(final Class<?> clazz, final String name) {
+		String dir = System.getProperty("azkfw.test.plan.baseline.dir", "src/test/resources/azuki-plan-baseline");
+		return new File(new File(dir, clazz.getName()), name + ".json");
+	}
+
+	/**
+	 * ベースラインを読み込む。
+	 * 
+	 * @param file ファイル
+	 * @return 実行計画。存在しない場合、<code>null</code>
+	 * @throws IOException 入出力時に問題が発生した場合
+	 */
+	public static QueryPlan load(final File file) throws IOException {
+		if (!file.isFile()) {
+			return null;
+		}
+		InputStream is = null;
+		try {
+			is = new FileInputStream(file);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int size;
+			while (-1 != (size = is.read(buffer))) {
+				out.write(buffer, 0, size);
+			}
+			return new QueryPlan(out.toString("UTF-8"));
+		} finally {
+			if (null != is) {
+				is.close();
+			}
+		}
+	}
+
+	/**
+	 * ベースラインを保存する。
+	 * 
+	 * @param file ファイル
+	 * @param plan 実行計画
+	 * @throws IOException 入出力時に問題が発生した場合
+	 */
+	public static void store(final File file, final QueryPlan plan) throws IOException {
+		File dir = file.getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+			throw new IOException(String.format("Baseline directory create error.[%s]", dir.getAbsolutePath()));
+		}
+		Writer writer = null;
+		try {
+			writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+			writer.write(plan.getJson());
+		} finally {
+			if (null != writer) {
+				writer.close();
+			}
+		}
+	}
+}
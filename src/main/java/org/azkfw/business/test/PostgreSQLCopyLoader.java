@@ -0,0 +1,482 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.azkfw.business.test.annotation.BulkCopy;
+import org.azkfw.datasource.Field;
+import org.azkfw.datasource.Record;
+import org.azkfw.datasource.Table;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * このクラスは、PostgreSQLのCOPYでテーブルを一括登録するクラスです。
+ * <p>
+ * PostgreSQLのJDBCドライバが存在する場合のみ使用すること。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class PostgreSQLCopyLoader {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final byte[] BINARY_SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0 };
+
+	/** 2000-01-01 00:00:00 UTC */
+	private static final long POSTGRES_EPOCH_MILLIS = 946684800000L;
+
+	private static final long MILLIS_PER_DAY = 86400000L;
+
+	private final CopyIn copy;
+
+	private final byte[] buffer;
+
+	private int position;
+
+	private PostgreSQLCopyLoader(final CopyIn copy) {
+		this.copy = copy;
+		this.buffer = new byte[BUFFER_SIZE];
+		this.position = 0;
+	}
+
+	/**
+	 * コネクションがCOPYに対応しているか判定する。
+	 * 
+	 * @param connection コネクション
+	 * @return 対応している場合、<code>true</code>
+	 */
+	public static boolean isSupported(final Connection connection) {
+		try {
+			return connection.isWrapperFor(PGConnection.class);
+		} catch (SQLException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * テーブルをCOPYで登録する。
+	 * <p>
+	 * バイナリ形式に対応していない型のカラムが存在する場合、テキスト形式で登録する。
+	 * </p>
+	 * 
+	 * @param connection コネクション
+	 * @param table テーブル
+	 * @param format フォーマット
+	 * @return 登録件数
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static long copy(final Connection connection, final Table table, final BulkCopy.Format format) throws SQLException {
+		List<Field> fields = table.getFields();
+
+		String[] types = null;
+		if (BulkCopy.Format.BINARY == format) {
+			types = getBinaryTypes(connection, table);
+		}
+
+		StringBuilder sql = new StringBuilder();
+		sql.append("COPY ");
+		sql.append(table.getName());
+		sql.append(" (");
+		for (int i = 0; i < fields.size(); i++) {
+			if (0 != i) {
+				sql.append(", ");
+			}
+			sql.append(fields.get(i).getName());
+		}
+		sql.append(") FROM STDIN");
+		if (null != types) {
+			sql.append(" WITH (FORMAT binary)");
+		}
+
+		PGConnection pg = connection.unwrap(PGConnection.class);
+		CopyIn copy = pg.getCopyAPI().copyIn(sql.toString());
+		PostgreSQLCopyLoader loader = new PostgreSQLCopyLoader(copy);
+		try {
+			if (null != types) {
+				loader.writeBinary(table, types);
+			} else {
+				loader.writeText(table);
+			}
+			loader.flush();
+			return copy.endCopy();
+		} finally {
+			if (copy.isActive()) {
+				copy.cancelCopy();
+			}
+		}
+	}
+
+	private void writeText(final Table table) throws SQLException {
+		List<Field> fields = table.getFields();
+		List<Record> records = table.getRecords();
+		for (int i = 0; i < records.size(); i++) {
+			Record record = records.get(i);
+			for (int j = 0; j < fields.size(); j++) {
+				Field field = fields.get(j);
+				if (0 != j) {
+					write('\t');
+				}
+				Object value = AbstractDatasourceTestCase.toParameterValue(field, record.get(field.getName()));
+				if (null == value) {
+					write('\\');
+					write('N');
+				} else {
+					writeTextValue(value);
+				}
+			}
+			write('\n');
+		}
+	}
+
+	private void writeTextValue(final Object value) throws SQLException {
+		String string = null;
+		if (value instanceof byte[]) {
+			StringBuilder s = new StringBuilder("\\x");
+			for (byte b : (byte[]) value) {
+				s.append(String.format("%02x", b & 0xff));
+			}
+			string = s.toString();
+		} else if (value instanceof java.sql.Date || value instanceof Timestamp) {
+			string = value.toString();
+		} else if (value instanceof java.util.Date) {
+			string = new Timestamp(((java.util.Date) value).getTime()).toString();
+		} else {
+			string = value.toString();
+		}
+
+		StringBuilder s = new StringBuilder(string.length() + 8);
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			switch (c) {
+			case '\\':
+				s.append("\\\\");
+				break;
+			case '\n':
+				s.append("\\n");
+				break;
+			case '\r':
+				s.append("\\r");
+				break;
+			case '\t':
+				s.append("\\t");
+				break;
+			default:
+				s.append(c);
+				break;
+			}
+		}
+		write(toBytes(s.toString()));
+	}
+
+	private void writeBinary(final Table table, final String[] types) throws SQLException {
+		List<Field> fields = table.getFields();
+		List<Record> records = table.getRecords();
+
+		write(BINARY_SIGNATURE);
+		writeInt(0); // flags
+		writeInt(0); // header extension length
+		for (int i = 0; i < records.size(); i++) {
+			Record record = records.get(i);
+			writeShort(fields.size());
+			for (int j = 0; j < fields.size(); j++) {
+				Field field = fields.get(j);
+				Object value = AbstractDatasourceTestCase.toParameterValue(field, record.get(field.getName()));
+				if (null == value) {
+					writeInt(-1);
+				} else {
+					try {
+						writeBinaryValue(types[j], value);
+					} catch (IllegalArgumentException ex) {
+						// NumberFormatException 含む
+						throw new SQLException(String.format("Unsupported value.[%s.%s, %s]", table.getName(), field.getName(), value), ex);
+					}
+				}
+			}
+		}
+		writeShort(-1); // trailer
+	}
+
+	private void writeBinaryValue(final String type, final Object value) throws SQLException {
+		if ("bool".equals(type)) {
+			boolean b = toBoolean(value);
+			writeInt(1);
+			write(b ? 1 : 0);
+		} else if ("int2".equals(type)) {
+			writeInt(2);
+			writeShort((int) toLong(value, Short.MIN_VALUE, Short.MAX_VALUE));
+		} else if ("int4".equals(type)) {
+			writeInt(4);
+			writeInt((int) toLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE));
+		} else if ("int8".equals(type)) {
+			writeInt(8);
+			writeLong(toLong(value, Long.MIN_VALUE, Long.MAX_VALUE));
+		} else if ("float4".equals(type)) {
+			writeInt(4);
+			writeInt(Float.floatToIntBits((float) toDouble(value)));
+		} else if ("float8".equals(type)) {
+			writeInt(8);
+			writeLong(Double.doubleToLongBits(toDouble(value)));
+		} else if ("date".equals(type)) {
+			writeInt(4);
+			writeInt(toBinaryDate(value));
+		} else if ("timestamp".equals(type)) {
+			writeInt(8);
+			writeLong(toBinaryTimestamp(value, false));
+		} else if ("timestamptz".equals(type)) {
+			writeInt(8);
+			writeLong(toBinaryTimestamp(value, true));
+		} else if ("bytea".equals(type)) {
+			byte[] bytes = (value instanceof byte[]) ? (byte[]) value : toBytes(value.toString());
+			writeInt(bytes.length);
+			write(bytes);
+		} else {
+			// text, varchar, bpchar
+			byte[] bytes = toBytes(value.toString());
+			writeInt(bytes.length);
+			write(bytes);
+		}
+	}
+
+	private static String[] getBinaryTypes(final Connection connection, final Table table) throws SQLException {
+		Map<String, String> columns = new HashMap<String, String>();
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			ps = connection.prepareStatement("SELECT a.attname, t.typname FROM pg_attribute a INNER JOIN pg_type t ON a.atttypid = t.oid"
+					+ " WHERE a.attrelid = CAST(CAST(? AS text) AS regclass) AND 0 < a.attnum AND NOT a.attisdropped");
+			ps.setString(1, table.getName());
+			rs = ps.executeQuery();
+			while (rs.next()) {
+				columns.put(rs.getString(1).toLowerCase(), rs.getString(2));
+			}
+		} finally {
+			if (null != rs) {
+				rs.close();
+			}
+			if (null != ps) {
+				ps.close();
+			}
+		}
+
+		List<Field> fields = table.getFields();
+		String[] types = new String[fields.size()];
+		for (int i = 0; i < fields.size(); i++) {
+			String type = columns.get(fields.get(i).getName().toLowerCase());
+			if (!isBinarySupported(type)) {
+				return null;
+			}
+			types[i] = type;
+		}
+		return types;
+	}
+
+	private static boolean isBinarySupported(final String type) {
+		if (null == type) {
+			return false;
+		}
+		return "bool".equals(type) || "int2".equals(type) || "int4".equals(type) || "int8".equals(type) || "float4".equals(type)
+				|| "float8".equals(type) || "date".equals(type) || "timestamp".equals(type) || "timestamptz".equals(type)
+				|| "bytea".equals(type) || "text".equals(type) || "varchar".equals(type) || "bpchar".equals(type);
+	}
+
+	/**
+	 * 真偽値に変換する。
+	 * <p>
+	 * PostgreSQLの入力と同じく<code>t/true/y/yes/on/1</code>と<code>f/false/n/no/off/0</code>(大文字小文字、前方一致の省略を含む)のみ受け付ける。
+	 * </p>
+	 * 
+	 * @param value 値
+	 * @return 真偽値
+	 * @throws IllegalArgumentException 真偽値として解釈できない場合
+	 */
+	static boolean toBoolean(final Object value) {
+		if (value instanceof Boolean) {
+			return (Boolean) value;
+		}
+		String string = value.toString().trim().toLowerCase(Locale.ENGLISH);
+		if (0 < string.length()) {
+			if ("true".startsWith(string) || "yes".startsWith(string) || "on".equals(string) || "1".equals(string)) {
+				return true;
+			}
+			if ("false".startsWith(string) || "no".startsWith(string) || "off".equals(string) || "of".equals(string) || "0".equals(string)) {
+				return false;
+			}
+		}
+		throw new IllegalArgumentException(String.format("Invalid boolean.[%s]", value));
+	}
+
+	/**
+	 * 整数に変換する。
+	 * <p>
+	 * 小数部を持つ値や範囲外の値は切り捨てずにエラーとする。
+	 * </p>
+	 * 
+	 * @param value 値
+	 * @param min 最小値
+	 * @param max 最大値
+	 * @return 整数
+	 * @throws IllegalArgumentException 整数として解釈できない場合
+	 */
+	static long toLong(final Object value, final long min, final long max) {
+		long result;
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			result = ((Number) value).longValue();
+		} else if (value instanceof Number) {
+			try {
+				result = new BigDecimal(value.toString()).longValueExact();
+			} catch (ArithmeticException ex) {
+				throw new IllegalArgumentException(String.format("Invalid integer.[%s]", value), ex);
+			}
+		} else {
+			result = Long.parseLong(value.toString().trim());
+		}
+		if (result < min || max < result) {
+			throw new IllegalArgumentException(String.format("Integer out of range.[%s]", value));
+		}
+		return result;
+	}
+
+	private static double toDouble(final Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+		return Double.parseDouble(value.toString().trim());
+	}
+
+	/**
+	 * バイナリ形式の日付(2000-01-01からの日数)に変換する。
+	 * 
+	 * @param value 値
+	 * @return 日数
+	 */
+	static int toBinaryDate(final Object value) {
+		long millis = toLocalMillis(toDate(value));
+		return (int) (floorDiv(millis, MILLIS_PER_DAY) - floorDiv(POSTGRES_EPOCH_MILLIS, MILLIS_PER_DAY));
+	}
+
+	/**
+	 * バイナリ形式のタイムスタンプ(2000-01-01 00:00:00からのマイクロ秒)に変換する。
+	 * 
+	 * @param value 値
+	 * @param zoned タイムゾーン付きの場合、<code>true</code>。UTCからの値とする
+	 * @return マイクロ秒
+	 */
+	static long toBinaryTimestamp(final Object value, final boolean zoned) {
+		java.util.Date date = toDate(value);
+		return toMicros((zoned) ? date.getTime() : toLocalMillis(date), date);
+	}
+
+	private static java.util.Date toDate(final Object value) {
+		if (value instanceof java.util.Date) {
+			return (java.util.Date) value;
+		}
+		String string = value.toString().trim();
+		if (10 == string.length()) {
+			return java.sql.Date.valueOf(string);
+		}
+		return Timestamp.valueOf(string);
+	}
+
+	private static long toLocalMillis(final java.util.Date date) {
+		long millis = date.getTime();
+		return millis + TimeZone.getDefault().getOffset(millis);
+	}
+
+	private static long toMicros(final long millis, final java.util.Date date) {
+		long micros = (millis - POSTGRES_EPOCH_MILLIS) * 1000L;
+		if (date instanceof Timestamp) {
+			micros += (((Timestamp) date).getNanos() / 1000) % 1000;
+		}
+		return micros;
+	}
+
+	private static long floorDiv(final long x, final long y) {
+		long r = x / y;
+		if ((x % y != 0) && ((x ^ y) < 0)) {
+			r--;
+		}
+		return r;
+	}
+
+	private static byte[] toBytes(final String string) {
+		try {
+			return string.getBytes("UTF-8");
+		} catch (UnsupportedEncodingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private void writeShort(final int value) throws SQLException {
+		write(value >>> 8);
+		write(value);
+	}
+
+	private void writeInt(final int value) throws SQLException {
+		write(value >>> 24);
+		write(value >>> 16);
+		write(value >>> 8);
+		write(value);
+	}
+
+	private void writeLong(final long value) throws SQLException {
+		writeInt((int) (value >>> 32));
+		writeInt((int) value);
+	}
+
+	private void write(final int b) throws SQLException {
+		if (buffer.length == position) {
+			flush();
+		}
+		buffer[position++] = (byte) b;
+	}
+
+	private void write(final byte[] bytes) throws SQLException {
+		if (buffer.length - position < bytes.length) {
+			flush();
+			if (buffer.length < bytes.length) {
+				copy.writeToCopy(bytes, 0, bytes.length);
+				return;
+			}
+		}
+		System.arraycopy(bytes, 0, buffer, position, bytes.length);
+		position += bytes.length;
+	}
+
+	private void flush() throws SQLException {
+		if (0 < position) {
+			copy.writeToCopy(buffer, 0, position);
+			position = 0;
+		}
+	}
+}
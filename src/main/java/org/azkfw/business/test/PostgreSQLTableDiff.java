@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * このクラスは、PostgreSQL上でテーブルの差分を求めるクラスです。
+ * <p>
+ * 期待値を格納した一時テーブルと比較対象のテーブルとの<code>EXCEPT ALL</code>を双方向に実行し、差異のあるレコードのみを取得する。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class PostgreSQLTableDiff {
+
+	/** 一時テーブル名の接頭辞 */
+	private static final String TEMPORARY_PREFIX = "azkfw_expected_";
+
+	/** PostgreSQLの識別子の最大長 */
+	private static final int MAX_IDENTIFIER_LENGTH = 63;
+
+	private final String table;
+
+	private final String temporary;
+
+	private final List<String> columns;
+
+	private final List<String> differences;
+
+	private long differenceCount;
+
+	/**
+	 * コンストラクタ
+	 * 
+	 * @param table 比較対象のテーブル名
+	 * @param columns 比較するカラム名
+	 */
+	public PostgreSQLTableDiff(final String table, final List<String> columns) {
+		this.table = table;
+		this.temporary = getTemporaryName(table);
+		this.columns = new ArrayList<String>(columns);
+		this.differences = new ArrayList<String>();
+		this.differenceCount = 0;
+	}
+
+	/**
+	 * 一時テーブル名を取得する。
+	 * 
+	 * @return 一時テーブル名
+	 */
+	public String getTemporaryName() {
+		return temporary;
+	}
+
+	/**
+	 * 比較対象のテーブルと同じ型のカラムを持つ一時テーブルを作成する。
+	 * 
+	 * @param connection コネクション
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public void createTemporary(final Connection connection) throws SQLException {
+		execute(connection, String.format("DROP TABLE IF EXISTS %s", temporary));
+		execute(connection, String.format("CREATE TEMPORARY TABLE %s AS SELECT %s FROM %s WITH NO DATA", temporary, getColumnList(), table));
+	}
+
+	/**
+	 * 一時テーブルを削除する。
+	 * 
+	 * @param connection コネクション
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public void dropTemporary(final Connection connection) throws SQLException {
+		execute(connection, String.format("DROP TABLE IF EXISTS %s", temporary));
+	}
+
+	/**
+	 * 差分を求める。
+	 * 
+	 * @param connection コネクション
+	 * @param maxDifferences 取得する差異の最大数
+	 * @return 差異がない場合、<code>true</code>
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public boolean diff(final Connection connection, final int maxDifferences) throws SQLException {
+		differences.clear();
+		differenceCount = 0;
+		differenceCount += query(connection, "Missing record", temporary, table, maxDifferences);
+		differenceCount += query(connection, "Unexpected record", table, temporary, maxDifferences - differences.size());
+		return (0 == differenceCount);
+	}
+
+	/**
+	 * 差異の内容を取得する。
+	 * 
+	 * @param message メッセージ
+	 * @return 差異の内容
+	 */
+	public String getMessage(final String message) {
+		StringBuilder s = new StringBuilder();
+		if (null != message) {
+			s.append(message).append(" ");
+		}
+		s.append(String.format("Table not equals.[%s, %d differences]", table, differenceCount));
+		for (String difference : differences) {
+			s.append("\n  ").append(difference);
+		}
+		if (differences.size() < differenceCount) {
+			s.append(String.format("\n  ... %d more", differenceCount - differences.size()));
+		}
+		return s.toString();
+	}
+
+	private long query(final Connection connection, final String label, final String left, final String right, final int limit)
+			throws SQLException {
+		String cols = getColumnList();
+		StringBuilder sql = new StringBuilder();
+		sql.append("SELECT d.*, count(*) OVER () FROM (");
+		sql.append(String.format("SELECT %s FROM %s EXCEPT ALL SELECT %s FROM %s", cols, left, cols, right));
+		sql.append(") d LIMIT ?");
+
+		long count = 0;
+		int added = 0;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			ps = connection.prepareStatement(sql.toString());
+			// 件数取得のため最低1件は取得する
+			ps.setInt(1, Math.max(1, limit));
+			rs = ps.executeQuery();
+			while (rs.next()) {
+				count = rs.getLong(columns.size() + 1);
+				if (added < limit) {
+					StringBuilder values = new StringBuilder();
+					for (int i = 0; i < columns.size(); i++) {
+						if (0 != i) {
+							values.append(", ");
+						}
+						values.append(rs.getString(i + 1));
+					}
+					differences.add(String.format("%s.[%s]", label, values));
+					added++;
+				}
+			}
+		} finally {
+			if (null != rs) {
+				rs.close();
+			}
+			if (null != ps) {
+				ps.close();
+			}
+		}
+		return count;
+	}
+
+	private String getColumnList() {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < columns.size(); i++) {
+			if (0 != i) {
+				s.append(", ");
+			}
+			s.append(columns.get(i));
+		}
+		return s.toString();
+	}
+
+	private static void execute(final Connection connection, final String sql) throws SQLException {
+		Statement stmt = null;
+		try {
+			stmt = connection.createStatement();
+			stmt.execute(sql);
+		} finally {
+			if (null != stmt) {
+				stmt.close();
+			}
+		}
+	}
+
+	private static String getTemporaryName(final String table) {
+		String name = TEMPORARY_PREFIX + table.toLowerCase().replaceAll("[^a-z0-9_]", "_");
+		if (MAX_IDENTIFIER_LENGTH < name.length()) {
+			name = name.substring(0, MAX_IDENTIFIER_LENGTH);
+		}
+		return name;
+	}
+}
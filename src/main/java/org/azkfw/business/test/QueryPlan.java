@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * このクラスは、PostgreSQLの実行計画を保持するクラスです。
+ * <p>
+ * <code>EXPLAIN (FORMAT JSON)</code>の結果を解析し、ノードの種類、テーブル、インデックス、コスト、バッファ数を参照する。<br />
+ * {@link #getShape()}はコストや件数を除いた計画の形で、実行間で計画の変化を比較するために使用する。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public final class QueryPlan {
+
+	private final String json;
+
+	private final Map<String, Object> root;
+
+	private final Map<String, Object> plan;
+
+	private final List<Map<String, Object>> nodes;
+
+	/**
+	 * コンストラクタ
+	 * 
+	 * @param json <code>EXPLAIN (FORMAT JSON)</code>の結果
+	 * @throws IllegalArgumentException 実行計画として解析できない場合
+	 */
+	public QueryPlan(final String json) {
+		this.json = json;
+		Object value = Json.parse(json);
+		if (value instanceof List && 0 < ((List<?>) value).size()) {
+			value = ((List<?>) value).get(0);
+		}
+		this.root = toMap(value);
+		this.plan = (null == root) ? null : toMap(root.get("Plan"));
+		if (null == plan) {
+			throw new IllegalArgumentException("Invalid query plan.");
+		}
+		List<Map<String, Object>> list = new ArrayList<Map<String, Object>>();
+		collect(plan, list);
+		this.nodes = Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * 実行計画のJSONを取得する。
+	 * 
+	 * @return JSON
+	 */
+	public String getJson() {
+		return json;
+	}
+
+	/**
+	 * 全てのノードを取得する。
+	 * 
+	 * @return ノード
+	 */
+	public List<Map<String, Object>> getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * 推定総コストを取得する。
+	 * 
+	 * @return 推定総コスト
+	 */
+	public double getTotalCost() {
+		return getDouble(plan, "Total Cost");
+	}
+
+	/**
+	 * 実行時間を取得する。
+	 * <p>
+	 * <code>ANALYZE</code>を指定した場合のみ取得できる。
+	 * </p>
+	 * 
+	 * @return 実行時間(ミリ秒)。取得できない場合、<code>-1</code>
+	 */
+	public double getExecutionTime() {
+		return (root.containsKey("Execution Time")) ? getDouble(root, "Execution Time") : -1.0;
+	}
+
+	/**
+	 * 共有バッファから読み込んだブロック数を取得する。
+	 * <p>
+	 * <code>ANALYZE</code>と<code>BUFFERS</code>を指定した場合のみ取得できる。
+	 * </p>
+	 * 
+	 * @return ブロック数。取得できない場合、<code>-1</code>
+	 */
+	public long getSharedReadBlocks() {
+		return (plan.containsKey("Shared Read Blocks")) ? (long) getDouble(plan, "Shared Read Blocks") : -1L;
+	}
+
+	/**
+	 * 共有バッファでヒットしたブロック数を取得する。
+	 * <p>
+	 * <code>ANALYZE</code>と<code>BUFFERS</code>を指定した場合のみ取得できる。
+	 * </p>
+	 * 
+	 * @return ブロック数。取得できない場合、<code>-1</code>
+	 */
+	public long getSharedHitBlocks() {
+		return (plan.containsKey("Shared Hit Blocks")) ? (long) getDouble(plan, "Shared Hit Blocks") : -1L;
+	}
+
+	/**
+	 * インデックスを使用しているか判断する。
+	 * 
+	 * @param index インデックス名
+	 * @return 使用している場合、<code>true</code>
+	 */
+	public boolean isIndexUsed(final String index) {
+		for (Map<String, Object> node : nodes) {
+			if (index.equalsIgnoreCase(getString(node, "Index Name"))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * テーブルをシーケンシャルスキャンしているか判断する。
+	 * 
+	 * @param table テーブル名
+	 * @return シーケンシャルスキャンしている場合、<code>true</code>
+	 */
+	public boolean isSeqScan(final String table) {
+		for (Map<String, Object> node : nodes) {
+			if ("Seq Scan".equals(getString(node, "Node Type")) && table.equalsIgnoreCase(getString(node, "Relation Name"))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 計画の形を取得する。
+	 * <p>
+	 * ノード毎にノードの種類、結合方法、テーブル名、インデックス名を階層順に1行ずつ出力する。コストや件数は含まない。
+	 * </p>
+	 * 
+	 * @return 計画の形
+	 */
+	public String getShape() {
+		StringBuilder s = new StringBuilder();
+		appendShape(s, plan, 0);
+		return s.toString();
+	}
+
+	@Override
+	public String toString() {
+		return getShape();
+	}
+
+	private static void appendShape(final StringBuilder s, final Map<String, Object> node, final int depth) {
+		for (int i = 0; i < depth; i++) {
+			s.append("  ");
+		}
+		s.append(getString(node, "Node Type"));
+		String join = getString(node, "Join Type");
+		if (null != join) {
+			s.append(" (").append(join).append(")");
+		}
+		String relation = getString(node, "Relation Name");
+		if (null != relation) {
+			s.append(" on ").append(relation);
+		}
+		String index = getString(node, "Index Name");
+		if (null != index) {
+			s.append(" using ").append(index);
+		}
+		s.append("\n");
+		for (Map<String, Object> child : getChildren(node)) {
+			appendShape(s, child, depth + 1);
+		}
+	}
+
+	private static void collect(final Map<String, Object> node, final List<Map<String, Object>> list) {
+		list.add(Collections.unmodifiableMap(node));
+		for (Map<String, Object> child : getChildren(node)) {
+			collect(child, list);
+		}
+	}
+
+	private static List<Map<String, Object>> getChildren(final Map<String, Object> node) {
+		List<Map<String, Object>> children = new ArrayList<Map<String, Object>>();
+		Object plans = node.get("Plans");
+		if (plans instanceof List) {
+			for (Object child : (List<?>) plans) {
+				Map<String, Object> map = toMap(child);
+				if (null != map) {
+					children.add(map);
+				}
+			}
+		}
+		return children;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> toMap(final Object value) {
+		return (value instanceof Map) ? (Map<String, Object>) value : null;
+	}
+
+	private static String getString(final Map<String, Object> node, final String key) {
+		Object value = node.get(key);
+		return (null == value) ? null : value.toString();
+	}
+
+	private static double getDouble(final Map<String, Object> node, final String key) {
+		Object value = node.get(key);
+		return (value instanceof Number) ? ((Number) value).doubleValue() : 0.0;
+	}
+}
@@ -0,0 +1,379 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * このクラスは、テスト実行に必要なスキーマ情報を管理するクラスです。
+ * <p>
+ * テーブル名の一覧のみを読み込み、主キー等のテーブル毎の情報は初めて参照された時に読み込む。<br />
+ * 読み込んだ情報はスキーマの指紋をキーとしてファイルにキャッシュし、フォーク間・実行間で共有する。
+ * 主キーを読み込んだ場合、{@link #flush()}でまとめてファイルに書き込む。
+ * 指紋はシステムプロパティ<code>azkfw.test.schema.version</code>(マイグレーションのバージョン等)を指定した場合はその値、
+ * 未指定の場合はカタログのチェックサムとする。<br />
+ * キャッシュディレクトリはシステムプロパティ<code>azkfw.test.schema.cache.dir</code>で変更でき、
+ * <code>azkfw.test.schema.cache</code>に<code>false</code>を指定すると無効になる。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class SchemaMetadata {
+
+	private static final int MAGIC = 0x415a5343; // AZSC
+
+	private static final int VERSION = 2;
+
+	private static final String FINGERPRINT_SQL = "SELECT md5(coalesce(string_agg(c.relname || ':' || a.attnum || ':' || a.attname || ':' || a.atttypid"
+			+ " || ':' || coalesce(i.indisprimary, false), ',' ORDER BY c.relname, a.attnum), '')) FROM pg_class c"
+			+ " INNER JOIN pg_attribute a ON a.attrelid = c.oid"
+			+ " LEFT OUTER JOIN pg_index i ON i.indrelid = c.oid AND i.indisprimary AND a.attnum = ANY(i.indkey)"
+			+ " WHERE c.relkind = 'r' AND a.attnum > 0 AND NOT a.attisdropped AND pg_table_is_visible(c.oid)";
+
+	private static final String TABLE_SQL = "SELECT c.relname FROM pg_class c WHERE c.relkind = 'r' AND pg_table_is_visible(c.oid)"
+			+ " ORDER BY c.relname";
+
+	private static final String PRIMARY_KEY_SQL = "SELECT a.attname FROM pg_index i"
+			+ " INNER JOIN pg_class c ON i.indrelid = c.oid"
+			+ " INNER JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum = ANY(i.indkey)"
+			+ " WHERE i.indisprimary AND c.relname = ? AND pg_table_is_visible(c.oid) ORDER BY a.attnum";
+
+	private static final String QUALIFIED_PRIMARY_KEY_SQL = "SELECT a.attname FROM pg_index i"
+			+ " INNER JOIN pg_class c ON i.indrelid = c.oid"
+			+ " INNER JOIN pg_namespace n ON c.relnamespace = n.oid"
+			+ " INNER JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum = ANY(i.indkey)"
+			+ " WHERE i.indisprimary AND c.relname = ? AND n.nspname = ? ORDER BY a.attnum";
+
+	private final String fingerprint;
+
+	private final List<String> tableNames;
+
+	/** テーブル名(指定された表記のまま) → 主キーのフィールド名 */
+	private final Map<String, List<String>> primaryKeys;
+
+	/** ファイルに書き込んでいない変更がある場合、<code>true</code> */
+	private boolean dirty;
+
+	private SchemaMetadata(final String fingerprint, final List<String> tableNames, final Map<String, List<String>> primaryKeys) {
+		this.fingerprint = fingerprint;
+		this.tableNames = Collections.unmodifiableList(tableNames);
+		this.primaryKeys = primaryKeys;
+	}
+
+	/**
+	 * スキーマ情報を読み込む。
+	 * <p>
+	 * 指紋が一致するキャッシュがある場合、キャッシュから読み込む。
+	 * </p>
+	 * 
+	 * @param connection コネクション
+	 * @return スキーマ情報
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static SchemaMetadata load(final Connection connection) throws SQLException {
+		String fingerprint = System.getProperty("azkfw.test.schema.version");
+		if (null == fingerprint || 0 == fingerprint.length()) {
+			fingerprint = queryString(connection, FINGERPRINT_SQL).get(0);
+		}
+		fingerprint = fingerprint.replaceAll("[^0-9A-Za-z._-]", "_");
+
+		if (isEnabled()) {
+			try {
+				SchemaMetadata metadata = loadFile(fingerprint);
+				if (null != metadata) {
+					return metadata;
+				}
+			} catch (IOException ex) {
+				ex.printStackTrace();
+			}
+		}
+
+		SchemaMetadata metadata = new SchemaMetadata(fingerprint, queryString(connection, TABLE_SQL), new TreeMap<String, List<String>>());
+		metadata.dirty = true;
+		metadata.flush();
+		return metadata;
+	}
+
+	/**
+	 * スキーマの指紋を取得する。
+	 * 
+	 * @return 指紋
+	 */
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * テーブル名の一覧を取得する。
+	 * 
+	 * @return テーブル名
+	 */
+	public List<String> getTableNames() {
+		return tableNames;
+	}
+
+	/**
+	 * テーブルの主キーが読み込み済みか判断する。
+	 * 
+	 * @param table テーブル名
+	 * @return 読み込み済みの場合、<code>true</code>
+	 */
+	public synchronized boolean isPrimaryKeyLoaded(final String table) {
+		return primaryKeys.containsKey(table);
+	}
+
+	/**
+	 * テーブルの主キーを読み込む。
+	 * <p>
+	 * テーブル名はスキーマ名で修飾できる。修飾しない場合、検索パスから解決する。<br />
+	 * 名前はまず指定された表記のまま検索し、見つからない場合は引用符で囲まれていない識別子のみ小文字にして検索する。
+	 * 引用符で囲まれた識別子(<code>"MyTable"</code>)は表記のまま検索する。
+	 * </p>
+	 * 
+	 * @param connection コネクション
+	 * @param table テーブル名
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public void loadPrimaryKey(final Connection connection, final String table) throws SQLException {
+		List<String> parts = splitIdentifier(table);
+		List<String> keys = queryPrimaryKey(connection, parts, false);
+		if (keys.isEmpty() && !parts.equals(toCatalogNames(parts, true))) {
+			keys = queryPrimaryKey(connection, parts, true);
+		}
+		synchronized (this) {
+			if (!primaryKeys.containsKey(table)) {
+				primaryKeys.put(table, Collections.unmodifiableList(keys));
+				dirty = true;
+			}
+		}
+	}
+
+	private static List<String> queryPrimaryKey(final Connection connection, final List<String> parts, final boolean fold)
+			throws SQLException {
+		List<String> names = toCatalogNames(parts, fold);
+		if (1 == names.size()) {
+			return queryString(connection, PRIMARY_KEY_SQL, names.get(0));
+		}
+		return queryString(connection, QUALIFIED_PRIMARY_KEY_SQL, names.get(names.size() - 1), names.get(names.size() - 2));
+	}
+
+	/**
+	 * 識別子をカタログ上の名前に変換する。
+	 * 
+	 * @param parts 識別子(引用符を含む)
+	 * @param fold 引用符で囲まれていない識別子を小文字にする場合、<code>true</code>
+	 * @return カタログ上の名前
+	 */
+	static List<String> toCatalogNames(final List<String> parts, final boolean fold) {
+		List<String> names = new ArrayList<String>(parts.size());
+		for (String part : parts) {
+			if (2 <= part.length() && part.startsWith("\"") && part.endsWith("\"")) {
+				names.add(part.substring(1, part.length() - 1).replace("\"\"", "\""));
+			} else {
+				names.add((fold) ? part.toLowerCase(Locale.ENGLISH) : part);
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * テーブル名をスキーマ名とテーブル名に分割する。引用符で囲まれた<code>.</code>では分割しない。
+	 * 
+	 * @param table テーブル名
+	 * @return 識別子(引用符を含む)
+	 */
+	static List<String> splitIdentifier(final String table) {
+		List<String> parts = new ArrayList<String>(2);
+		boolean quoted = false;
+		int start = 0;
+		for (int i = 0; i < table.length(); i++) {
+			char c = table.charAt(i);
+			if ('"' == c) {
+				quoted = !quoted;
+			} else if ('.' == c && !quoted) {
+				parts.add(table.substring(start, i).trim());
+				start = i + 1;
+			}
+		}
+		parts.add(table.substring(start).trim());
+		return parts;
+	}
+
+	/**
+	 * 変更をファイルに書き込む。
+	 * <p>
+	 * 前回の書き込み以降に変更がない場合、何もしない。
+	 * </p>
+	 */
+	public synchronized void flush() {
+		if (dirty) {
+			store();
+			dirty = false;
+		}
+	}
+
+	/**
+	 * テーブルの主キーのフィールド名を取得する。
+	 * 
+	 * @param table テーブル名
+	 * @return 主キーのフィールド名。主キーがない、または読み込まれていない場合、<code>null</code>
+	 */
+	public synchronized List<String> getPrimaryKeyNames(final String table) {
+		List<String> keys = primaryKeys.get(table);
+		return (null == keys || 0 == keys.size()) ? null : keys;
+	}
+
+	private static boolean isEnabled() {
+		return !"false".equalsIgnoreCase(System.getProperty("azkfw.test.schema.cache"));
+	}
+
+	private static File getFile(final String fingerprint) {
+		String dir = System.getProperty("azkfw.test.schema.cache.dir", "target/azuki-schema-cache");
+		return new File(dir, fingerprint + ".dat");
+	}
+
+	private static SchemaMetadata loadFile(final String fingerprint) throws IOException {
+		File file = getFile(fingerprint);
+		if (!file.isFile()) {
+			return null;
+		}
+
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (MAGIC != in.readInt() || VERSION != in.readInt()) {
+				return null;
+			}
+			int tableSize = in.readInt();
+			List<String> tableNames = new ArrayList<String>(tableSize);
+			for (int i = 0; i < tableSize; i++) {
+				tableNames.add(in.readUTF());
+			}
+			int keySize = in.readInt();
+			Map<String, List<String>> primaryKeys = new TreeMap<String, List<String>>();
+			for (int i = 0; i < keySize; i++) {
+				String table = in.readUTF();
+				int size = in.readInt();
+				List<String> keys = new ArrayList<String>(size);
+				for (int j = 0; j < size; j++) {
+					keys.add(in.readUTF());
+				}
+				primaryKeys.put(table, Collections.unmodifiableList(keys));
+			}
+			return new SchemaMetadata(fingerprint, tableNames, primaryKeys);
+		} finally {
+			if (null != in) {
+				in.close();
+			}
+		}
+	}
+
+	private synchronized void store() {
+		if (!isEnabled()) {
+			return;
+		}
+
+		File file = getFile(fingerprint);
+		File dir = file.getParentFile();
+		File tmp = null;
+		DataOutputStream out = null;
+		try {
+			if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+				throw new IOException(String.format("Cache directory create error.[%s]", dir.getAbsolutePath()));
+			}
+			tmp = File.createTempFile(fingerprint, ".tmp", dir);
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(tableNames.size());
+			for (String table : tableNames) {
+				out.writeUTF(table);
+			}
+			out.writeInt(primaryKeys.size());
+			for (Map.Entry<String, List<String>> entry : primaryKeys.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeInt(entry.getValue().size());
+				for (String key : entry.getValue()) {
+					out.writeUTF(key);
+				}
+			}
+			out.close();
+			out = null;
+
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			ex.printStackTrace();
+		} finally {
+			if (null != out) {
+				try {
+					out.close();
+				} catch (IOException ex) {
+					ex.printStackTrace();
+				}
+			}
+			if (null != tmp && tmp.exists()) {
+				tmp.delete();
+			}
+		}
+	}
+
+	private static List<String> queryString(final Connection connection, final String sql, final String... parameters) throws SQLException {
+		List<String> result = new ArrayList<String>();
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			ps = connection.prepareStatement(sql);
+			for (int i = 0; i < parameters.length; i++) {
+				ps.setString(i + 1, parameters[i]);
+			}
+			rs = ps.executeQuery();
+			while (rs.next()) {
+				result.add(rs.getString(1));
+			}
+		} finally {
+			if (null != rs) {
+				rs.close();
+			}
+			if (null != ps) {
+				ps.close();
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.azkfw.datasource.Datasource;
+import org.azkfw.datasource.Field;
+import org.azkfw.datasource.FieldType;
+import org.azkfw.datasource.Record;
+import org.azkfw.datasource.Table;
+
+/**
+ * このクラスは、メモリ上に保持するデータソースクラスです。
+ * <p>
+ * レコードはフィールド順の値配列で保持し、フィールド名の索引はテーブル毎に共有する。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class SimpleDatasource implements Datasource {
+
+	private final String name;
+
+	private final List<Table> tables;
+
+	/**
+	 * コンストラクタ
+	 * 
+	 * @param name 名前
+	 */
+	public SimpleDatasource(final String name) {
+		this.name = name;
+		this.tables = new ArrayList<Table>();
+	}
+
+	/**
+	 * テーブルを追加する。
+	 * 
+	 * @param table テーブル
+	 */
+	public void addTable(final Table table) {
+		tables.add(table);
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public List<Table> getTables() {
+		return Collections.unmodifiableList(tables);
+	}
+
+	/**
+	 * このクラスは、メモリ上に保持するテーブルクラスです。
+	 */
+	static final class SimpleTable implements Table {
+
+		private final String label;
+
+		private final String name;
+
+		private final List<Field> fields;
+
+		private final Map<String, Integer> indexes;
+
+		private final List<Record> records;
+
+		/**
+		 * コンストラクタ
+		 * 
+		 * @param label ラベル
+		 * @param name 名前
+		 * @param fields フィールド一覧
+		 */
+		public SimpleTable(final String label, final String name, final List<Field> fields) {
+			this.label = label;
+			this.name = name;
+			this.fields = new ArrayList<Field>(fields);
+			this.indexes = new HashMap<String, Integer>();
+			for (int i = 0; i < fields.size(); i++) {
+				indexes.put(fields.get(i).getName(), i);
+			}
+			this.records = new ArrayList<Record>();
+		}
+
+		/**
+		 * レコードを追加する。
+		 * 
+		 * @param values フィールド順の値
+		 */
+		public void addRecord(final Object[] values) {
+			records.add(newRecord(values));
+		}
+
+		/**
+		 * レコードを追加する。
+		 * 
+		 * @param record レコード
+		 */
+		public void addRecord(final Record record) {
+			records.add(record);
+		}
+
+		/**
+		 * テーブルに追加せずにレコードを生成する。
+		 * 
+		 * @param values フィールド順の値
+		 * @return レコード
+		 */
+		public Record newRecord(final Object[] values) {
+			return new SimpleRecord(indexes, values);
+		}
+
+		@Override
+		public String getLabel() {
+			return label;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public List<Field> getFields() {
+			return Collections.unmodifiableList(fields);
+		}
+
+		@Override
+		public List<Record> getRecords() {
+			return Collections.unmodifiableList(records);
+		}
+	}
+
+	/**
+	 * このクラスは、メモリ上に保持するフィールドクラスです。
+	 */
+	static final class SimpleField implements Field {
+
+		private final String label;
+
+		private final String name;
+
+		private final FieldType type;
+
+		/**
+		 * コンストラクタ
+		 * 
+		 * @param label ラベル
+		 * @param name 名前
+		 * @param type 型
+		 */
+		public SimpleField(final String label, final String name, final FieldType type) {
+			this.label = label;
+			this.name = name;
+			this.type = type;
+		}
+
+		@Override
+		public String getLabel() {
+			return label;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public FieldType getType() {
+			return type;
+		}
+	}
+
+	/**
+	 * このクラスは、メモリ上に保持するレコードクラスです。
+	 */
+	static final class SimpleRecord implements Record {
+
+		private final Map<String, Integer> indexes;
+
+		private final Object[] values;
+
+		private SimpleRecord(final Map<String, Integer> indexes, final Object[] values) {
+			this.indexes = indexes;
+			this.values = values;
+		}
+
+		@Override
+		public Object get(final String name) {
+			Integer index = indexes.get(name);
+			return (null == index) ? null : values[index];
+		}
+	}
+}
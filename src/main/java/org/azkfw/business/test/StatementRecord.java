@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * このクラスは、実行したSQLの計測結果を保持するクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public final class StatementRecord {
+
+	private final String name;
+
+	private final String type;
+
+	private final String sql;
+
+	private final List<Object> parameters;
+
+	private final long elapsedTime;
+
+	private final long borrowTime;
+
+	private final long rows;
+
+	/**
+	 * コンストラクタ
+	 * 
+	 * @param name DynamicSQL名
+	 * @param type 処理種別(<code>count</code>、<code>query</code>、<code>execute</code>、<code>update</code>、<code>batch</code>)
+	 * @param sql SQL
+	 * @param parameters パラメータ
+	 * @param elapsedTime 実行時間(ナノ秒)
+	 * @param borrowTime コネクションの取得時間(ナノ秒)
+	 * @param rows 取得または更新したレコード数。不明な場合、<code>-1</code>
+	 */
+	public StatementRecord(final String name, final String type, final String sql, final List<Object> parameters, final long elapsedTime,
+			final long borrowTime, final long rows) {
+		this.name = name;
+		this.type = type;
+		this.sql = sql;
+		this.parameters = (null == parameters) ? Collections.emptyList() : Collections.unmodifiableList(parameters);
+		this.elapsedTime = elapsedTime;
+		this.borrowTime = borrowTime;
+		this.rows = rows;
+	}
+
+	/**
+	 * DynamicSQL名を取得する。
+	 * 
+	 * @return DynamicSQL名
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 処理種別を取得する。
+	 * 
+	 * @return 処理種別
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * SQLを取得する。
+	 * 
+	 * @return SQL
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * パラメータを取得する。
+	 * 
+	 * @return パラメータ
+	 */
+	public List<Object> getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * 実行時間を取得する。
+	 * 
+	 * @return 実行時間(ナノ秒)
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	/**
+	 * コネクションの取得時間を取得する。
+	 * 
+	 * @return 取得時間(ナノ秒)
+	 */
+	public long getBorrowTime() {
+		return borrowTime;
+	}
+
+	/**
+	 * 取得または更新したレコード数を取得する。
+	 * 
+	 * @return レコード数。不明な場合、<code>-1</code>
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s %s [%.3f ms, %d rows] %s", name, type, elapsedTime / 1000000.0, rows, sql);
+	}
+}
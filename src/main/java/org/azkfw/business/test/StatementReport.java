@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * このクラスは、実行したSQLの計測結果をJSON形式で出力するクラスです。
+ * <p>
+ * 出力先はシステムプロパティ<code>azkfw.test.dsql.report.dir</code>で変更でき、
+ * <code>azkfw.test.dsql.report</code>に<code>false</code>を指定すると出力しない。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class StatementReport {
+
+	private StatementReport() {
+	}
+
+	/**
+	 * 出力が有効か判断する。
+	 * 
+	 * @return 有効な場合、<code>true</code>
+	 */
+	public static boolean isEnabled() {
+		return !"false".equalsIgnoreCase(System.getProperty("azkfw.test.dsql.report"));
+	}
+
+	/**
+	 * テストメソッドの計測結果を出力する。
+	 * <p>
+	 * 実行したSQLを実行順に出力する。
+	 * </p>
+	 * 
+	 * @param clazz テストクラス
+	 * @param method テストメソッド名
+	 * @param records 計測結果
+	 * @throws IOException 入出力時に問題が発生した場合
+	 */
+	public static void writeTest(final Class<?> clazz, final String method, final List<StatementRecord> records) throws IOException {
+		StringBuilder s = new StringBuilder();
+		s.append("{\n");
+		s.append("  \"class\": ").append(Json.quote(clazz.getName())).append(",\n");
+		s.append("  \"method\": ").append(Json.quote(method)).append(",\n");
+		s.append("  \"statements\": [");
+		for (int i = 0; i < records.size(); i++) {
+			StatementRecord record = records.get(i);
+			s.append((0 == i) ? "\n" : ",\n");
+			s.append("    {");
+			s.append("\"name\": ").append(Json.quote(record.getName()));
+			s.append(", \"type\": ").append(Json.quote(record.getType()));
+			s.append(", \"elapsedMs\": ").append(toMillis(record.getElapsedTime()));
+			s.append(", \"borrowMs\": ").append(toMillis(record.getBorrowTime()));
+			s.append(", \"rows\": ").append(record.getRows());
+			s.append(", \"sql\": ").append(Json.quote(record.getSql()));
+			s.append(", \"parameters\": [");
+			List<Object> parameters = record.getParameters();
+			for (int j = 0; j < parameters.size(); j++) {
+				if (0 != j) {
+					s.append(", ");
+				}
+				Object value = parameters.get(j);
+				s.append((null == value) ? "null" : Json.quote(value.toString()));
+			}
+			s.append("]}");
+		}
+		s.append((0 == records.size()) ? "]\n" : "\n  ]\n");
+		s.append("}\n");
+
+		write(new File(new File(getDirectory(), clazz.getName()), method + ".json"), s.toString());
+	}
+
+	/**
+	 * テストクラスの計測結果を出力する。
+	 * <p>
+	 * DynamicSQL名と処理種別毎の集計を、合計時間の降順で出力する。
+	 * </p>
+	 * 
+	 * @param clazz テストクラス
+	 * @param summary 集計結果
+	 * @throws IOException 入出力時に問題が発生した場合
+	 */
+	public static void writeClass(final Class<?> clazz, final Summary summary) throws IOException {
+		List<Map.Entry<String, long[]>> entries = new ArrayList<Map.Entry<String, long[]>>(summary.summaries.entrySet());
+		Collections.sort(entries, new Comparator<Map.Entry<String, long[]>>() {
+			@Override
+			public int compare(final Map.Entry<String, long[]> o1, final Map.Entry<String, long[]> o2) {
+				return Long.compare(o2.getValue()[1], o1.getValue()[1]);
+			}
+		});
+
+		StringBuilder s = new StringBuilder();
+		s.append("{\n");
+		s.append("  \"class\": ").append(Json.quote(clazz.getName())).append(",\n");
+		s.append("  \"statements\": [");
+		for (int i = 0; i < entries.size(); i++) {
+			String[] key = entries.get(i).getKey().split("\t", 2);
+			long[] values = entries.get(i).getValue();
+			s.append((0 == i) ? "\n" : ",\n");
+			s.append("    {");
+			s.append("\"name\": ").append(Json.quote(key[0]));
+			s.append(", \"type\": ").append(Json.quote(key[1]));
+			s.append(", \"count\": ").append(values[0]);
+			s.append(", \"totalMs\": ").append(toMillis(values[1]));
+			s.append(", \"maxMs\": ").append(toMillis(values[2]));
+			s.append(", \"avgMs\": ").append(toMillis(values[1] / values[0]));
+			s.append(", \"borrowMs\": ").append(toMillis(values[4]));
+			s.append(", \"rows\": ").append(values[3]);
+			s.append("}");
+		}
+		s.append((0 == entries.size()) ? "]\n" : "\n  ]\n");
+		s.append("}\n");
+
+		write(new File(getDirectory(), clazz.getName() + ".json"), s.toString());
+	}
+
+	private static File getDirectory() {
+		return new File(System.getProperty("azkfw.test.dsql.report.dir", "target/azuki-dsql-report"));
+	}
+
+	private static String toMillis(final long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1000000.0);
+	}
+
+	private static void write(final File file, final String content) throws IOException {
+		File dir = file.getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+			throw new IOException(String.format("Report directory create error.[%s]", dir.getAbsolutePath()));
+		}
+		Writer writer = null;
+		try {
+			writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+			writer.write(content);
+		} finally {
+			if (null != writer) {
+				writer.close();
+			}
+		}
+	}
+
+	/**
+	 * このクラスは、テストクラスの計測結果をDynamicSQL名と処理種別毎に集計するクラスです。
+	 * <p>
+	 * 計測結果そのものは保持せず、実行回数、合計時間、最大時間、レコード数、コネクション取得時間のみを保持する。
+	 * </p>
+	 */
+	static final class Summary {
+
+		/** DynamicSQL名と処理種別 → [実行回数, 合計時間, 最大時間, レコード数, コネクション取得時間] */
+		private final Map<String, long[]> summaries;
+
+		Summary() {
+			summaries = new LinkedHashMap<String, long[]>();
+		}
+
+		/**
+		 * 計測結果を集計に加える。
+		 * 
+		 * @param records 計測結果
+		 */
+		public void add(final List<StatementRecord> records) {
+			for (StatementRecord record : records) {
+				String key = record.getName() + "\t" + record.getType();
+				long[] summary = summaries.get(key);
+				if (null == summary) {
+					summary = new long[5];
+					summaries.put(key, summary);
+				}
+				summary[0]++;
+				summary[1] += record.getElapsedTime();
+				summary[2] = Math.max(summary[2], record.getElapsedTime());
+				summary[3] += Math.max(0, record.getRows());
+				summary[4] += record.getBorrowTime();
+			}
+		}
+	}
+}
@@ -0,0 +1,401 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.azkfw.datasource.Field;
+import org.azkfw.datasource.FieldType;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * このクラスは、Excel(xlsx)形式のデータソースファイルを1行ずつ読み込むクラスです。
+ * <p>
+ * ワークブック全体をメモリ上に展開せず、ファイルから直接シート毎にXMLを逐次解析する。<br />
+ * シートの構成は{@link ExcelSheetLayout}に従う。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class StreamingExcelReader {
+
+	private final OPCPackage pkg;
+
+	/** 入力ストリームを退避した一時ファイル */
+	private final File temporary;
+
+	private final XSSFReader reader;
+
+	private final ReadOnlySharedStringsTable strings;
+
+	/**
+	 * このインターフェースは、レコードを受け取るハンドラです。
+	 */
+	public static interface RecordHandler {
+
+		/**
+		 * レコードを処理する。
+		 * 
+		 * @param values フィールド順の値
+		 * @throws Exception 処理中に問題が発生した場合
+		 */
+		void record(Object[] values) throws Exception;
+	}
+
+	/**
+	 * コンストラクタ
+	 * 
+	 * @param file ファイル
+	 * @throws IOException 入出力時に問題が発生した場合
+	 */
+	public StreamingExcelReader(final File file) throws IOException {
+		this(file, false);
+	}
+
+	/**
+	 * コンストラクタ
+	 * <p>
+	 * 入力ストリームは一時ファイルに退避してから読み込む。一時ファイルは{@link #close()}で削除する。
+	 * </p>
+	 * 
+	 * @param is 入力ストリーム
+	 * @throws IOException 入出力時に問題が発生した場合
+	 */
+	public StreamingExcelReader(final InputStream is) throws IOException {
+		this(spool(is), true);
+	}
+
+	private StreamingExcelReader(final File file, final boolean temporary) throws IOException {
+		this.temporary = (temporary) ? file : null;
+		OPCPackage p = null;
+		try {
+			p = OPCPackage.open(file, PackageAccess.READ);
+			pkg = p;
+			reader = new XSSFReader(pkg);
+			strings = new ReadOnlySharedStringsTable(pkg);
+		} catch (OpenXML4JException ex) {
+			release(p);
+			throw new IOException(ex);
+		} catch (SAXException ex) {
+			release(p);
+			throw new IOException(ex);
+		}
+	}
+
+	private static File spool(final InputStream is) throws IOException {
+		File file = File.createTempFile("azkfw-", ".xlsx");
+		try {
+			Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException ex) {
+			file.delete();
+			throw ex;
+		}
+		return file;
+	}
+
+	private void release(final OPCPackage p) {
+		if (null != p) {
+			p.revert();
+		}
+		if (null != temporary) {
+			temporary.delete();
+		}
+	}
+
+	/**
+	 * 対象のファイルに対応しているか判断する。
+	 * 
+	 * @param name ファイル名
+	 * @return 対応している場合、<code>true</code>
+	 */
+	public static boolean isSupported(final String name) {
+		return name.toLowerCase().endsWith(".xlsx");
+	}
+
+	/**
+	 * 全シートのヘッダを読み込む。
+	 * <p>
+	 * 返却するテーブルはレコードを持たない。
+	 * </p>
+	 * 
+	 * @return テーブル一覧（ワークブック順）
+	 * @throws IOException 入出力時に問題が発生した場合
+	 */
+	public List<SimpleDatasource.SimpleTable> readTables() throws IOException {
+		List<SimpleDatasource.SimpleTable> tables = new ArrayList<SimpleDatasource.SimpleTable>();
+		XSSFReader.SheetIterator it = getSheets();
+		while (it.hasNext()) {
+			InputStream is = it.next();
+			try {
+				SheetHandler handler = new SheetHandler(null, null);
+				parse(is, handler);
+				tables.add(new SimpleDatasource.SimpleTable(it.getSheetName(), it.getSheetName(), handler.getFields()));
+			} catch (IllegalArgumentException ex) {
+				throw new IOException(String.format("Sheet header error.[%s]", it.getSheetName()), ex);
+			} finally {
+				is.close();
+			}
+		}
+		return tables;
+	}
+
+	/**
+	 * シートのレコードを1行ずつ読み込む。
+	 * 
+	 * @param table テーブル（{@link #readTables()}の戻り値）
+	 * @param handler ハンドラ
+	 * @throws IOException 入出力時に問題が発生した場合
+	 */
+	public void read(final SimpleDatasource.SimpleTable table, final RecordHandler handler) throws IOException {
+		XSSFReader.SheetIterator it = getSheets();
+		while (it.hasNext()) {
+			InputStream is = it.next();
+			try {
+				if (table.getName().equals(it.getSheetName())) {
+					parse(is, new SheetHandler(table.getFields(), handler));
+					return;
+				}
+			} finally {
+				is.close();
+			}
+		}
+	}
+
+	/**
+	 * 読み込みを終了する。
+	 */
+	public void close() {
+		release(pkg);
+	}
+
+	private XSSFReader.SheetIterator getSheets() throws IOException {
+		try {
+			Iterator<InputStream> it = reader.getSheetsData();
+			return (XSSFReader.SheetIterator) it;
+		} catch (OpenXML4JException ex) {
+			throw new IOException(ex);
+		}
+	}
+
+	private void parse(final InputStream is, final SheetHandler handler) throws IOException {
+		try {
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(false);
+			SAXParser parser = factory.newSAXParser();
+			parser.parse(new InputSource(is), handler);
+		} catch (StopException ex) {
+			// ヘッダのみ読み込み
+		} catch (HandlerException ex) {
+			throw new IOException(ex.getCause());
+		} catch (SAXException ex) {
+			throw new IOException(ex);
+		} catch (ParserConfigurationException ex) {
+			throw new IOException(ex);
+		}
+	}
+
+	private static Object toValue(final Field field, final String string) {
+		if (null == string || 0 == string.length()) {
+			return null;
+		}
+		FieldType type = field.getType();
+		if (FieldType.Boolean == type) {
+			return "1".equals(string) || "true".equalsIgnoreCase(string);
+		} else if (FieldType.Integer == type) {
+			return new BigDecimal(string).intValue();
+		} else if (FieldType.Long == type) {
+			return new BigDecimal(string).longValue();
+		} else if (FieldType.Float == type) {
+			return Float.valueOf(string);
+		} else if (FieldType.Double == type) {
+			return Double.valueOf(string);
+		} else if (FieldType.Date == type || FieldType.Timestamp == type) {
+			java.util.Date date = null;
+			if (string.matches("-?[0-9]+(\\.[0-9]+)?")) {
+				date = DateUtil.getJavaDate(Double.parseDouble(string));
+			} else {
+				String s = string.replace('/', '-');
+				date = (10 == s.length()) ? java.sql.Date.valueOf(s) : Timestamp.valueOf(s);
+			}
+			return (FieldType.Date == type) ? new java.sql.Date(date.getTime()) : new Timestamp(date.getTime());
+		}
+		return string;
+	}
+
+	private static int toColumnIndex(final String reference) {
+		int index = 0;
+		for (int i = 0; i < reference.length(); i++) {
+			char c = reference.charAt(i);
+			if ('A' <= c && c <= 'Z') {
+				index = index * 26 + (c - 'A' + 1);
+			} else {
+				break;
+			}
+		}
+		return index - 1;
+	}
+
+	private static class StopException extends SAXException {
+
+		private static final long serialVersionUID = 1L;
+	}
+
+	private static class HandlerException extends SAXException {
+
+		private static final long serialVersionUID = 1L;
+
+		public HandlerException(final Exception cause) {
+			super(cause);
+		}
+	}
+
+	private class SheetHandler extends DefaultHandler {
+
+		private final List<Field> fields;
+
+		private final RecordHandler handler;
+
+		private final List<String> labels = new ArrayList<String>();
+		private final List<String> names = new ArrayList<String>();
+		private final List<String> types = new ArrayList<String>();
+
+		private final List<String> cells = new ArrayList<String>();
+
+		private final StringBuilder text = new StringBuilder();
+
+		private int rowNumber;
+		private int column;
+		private String cellType;
+		private boolean inValue;
+
+		public SheetHandler(final List<Field> fields, final RecordHandler handler) {
+			this.fields = fields;
+			this.handler = handler;
+			this.rowNumber = 0;
+		}
+
+		public List<Field> getFields() {
+			List<Field> result = new ArrayList<Field>();
+			for (int i = 0; i < names.size(); i++) {
+				String name = names.get(i);
+				if (null == name || 0 == name.length()) {
+					break;
+				}
+				String label = (i < labels.size()) ? labels.get(i) : name;
+				FieldType type = (i < types.size()) ? ExcelSheetLayout.toFieldType(types.get(i)) : null;
+				result.add(new SimpleDatasource.SimpleField(label, name, type));
+			}
+			return result;
+		}
+
+		@Override
+		public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) throws SAXException {
+			if ("row".equals(qName)) {
+				String r = attributes.getValue("r");
+				rowNumber = (null != r) ? Integer.parseInt(r) : rowNumber + 1;
+				cells.clear();
+			} else if ("c".equals(qName)) {
+				String r = attributes.getValue("r");
+				column = (null != r) ? toColumnIndex(r) : cells.size();
+				cellType = attributes.getValue("t");
+				text.setLength(0);
+			} else if ("v".equals(qName) || "t".equals(qName)) {
+				inValue = true;
+			}
+		}
+
+		@Override
+		public void characters(final char[] ch, final int start, final int length) {
+			if (inValue) {
+				text.append(ch, start, length);
+			}
+		}
+
+		@Override
+		public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+			if ("v".equals(qName) || "t".equals(qName)) {
+				inValue = false;
+			} else if ("c".equals(qName)) {
+				String value = text.toString();
+				if ("s".equals(cellType) && 0 < value.length()) {
+					value = strings.getEntryAt(Integer.parseInt(value));
+				}
+				while (cells.size() < column) {
+					cells.add(null);
+				}
+				cells.add(value);
+			} else if ("row".equals(qName)) {
+				endRow();
+			}
+		}
+
+		private void endRow() throws SAXException {
+			if (ExcelSheetLayout.LABEL_ROW == rowNumber) {
+				labels.addAll(cells);
+			} else if (ExcelSheetLayout.NAME_ROW == rowNumber) {
+				names.addAll(cells);
+			} else if (ExcelSheetLayout.TYPE_ROW == rowNumber) {
+				types.addAll(cells);
+				if (null == handler) {
+					throw new StopException();
+				}
+			} else if (ExcelSheetLayout.TYPE_ROW < rowNumber && null != handler) {
+				boolean empty = true;
+				Object[] values = new Object[fields.size()];
+				for (int i = 0; i < fields.size(); i++) {
+					String cell = (i < cells.size()) ? cells.get(i) : null;
+					if (null != cell && 0 < cell.length()) {
+						empty = false;
+					}
+					values[i] = toValue(fields.get(i), cell);
+				}
+				if (!empty) {
+					try {
+						handler.record(values);
+					} catch (Exception ex) {
+						throw new HandlerException(ex);
+					}
+				}
+			}
+		}
+	}
+}
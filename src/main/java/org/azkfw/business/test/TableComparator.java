@@ -0,0 +1,426 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.azkfw.datasource.Field;
+import org.azkfw.datasource.FieldType;
+import org.azkfw.datasource.Record;
+import org.azkfw.datasource.Table;
+
+/**
+ * このクラスは、テーブルの内容を比較するクラスです。
+ * <p>
+ * キーがある場合、期待値のレコードをキーのハッシュ表に登録し、現行値のレコードを1件ずつ突き合わせる。<br />
+ * そのため現行値は全件をメモリ上に保持する必要がなく、比較はレコード数に比例した時間で完了する。<br />
+ * キーは正規化した値のリストで、<code>NULL</code>と文字列<code>"null"</code>、区切り文字を含む値を区別する。
+ * </p>
+ * <p>
+ * 数値・日時の許容誤差は、キー・順序・順不同のいずれの比較でも同じく適用する。
+ * 順不同の比較で許容誤差を指定した場合、誤差を許容するフィールドを除いた値で候補を絞り込み、候補の中から許容誤差内のレコードを突き合わせる。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class TableComparator {
+
+	private final String name;
+
+	private final List<String> fieldNames;
+
+	private final Map<String, FieldType> fieldTypes;
+
+	private final List<String> keyNames;
+
+	private final DatasourceAssertOption option;
+
+	private final List<String> differences;
+
+	private long differenceCount;
+
+	/**
+	 * コンストラクタ
+	 * 
+	 * @param expected 期待値のテーブル
+	 * @param keyNames キーのフィールド名。キーがない場合、<code>null</code>
+	 * @param option 比較オプション
+	 */
+	public TableComparator(final Table expected, final List<String> keyNames, final DatasourceAssertOption option) {
+		this.name = expected.getName();
+		this.option = (null != option) ? option : new DatasourceAssertOption();
+		this.fieldNames = new ArrayList<String>();
+		this.fieldTypes = new HashMap<String, FieldType>();
+		for (Field field : expected.getFields()) {
+			if (!this.option.isIgnoreField(name, field.getName())) {
+				fieldNames.add(field.getName());
+				fieldTypes.put(field.getName(), field.getType());
+			}
+		}
+		this.keyNames = new ArrayList<String>();
+		if (null != keyNames) {
+			for (String key : keyNames) {
+				for (Field field : expected.getFields()) {
+					if (field.getName().equalsIgnoreCase(key)) {
+						this.keyNames.add(field.getName());
+						break;
+					}
+				}
+			}
+		}
+		this.differences = new ArrayList<String>();
+		this.differenceCount = 0;
+	}
+
+	/**
+	 * 比較する。
+	 * 
+	 * @param expected 期待値のレコード
+	 * @param actual 現行値のレコード
+	 * @return 差異がない場合、<code>true</code>
+	 */
+	public boolean compare(final List<Record> expected, final Iterator<Record> actual) {
+		if (0 < keyNames.size()) {
+			compareByKey(expected, actual);
+		} else if (option.isUnordered()) {
+			compareByValue(expected, actual);
+		} else {
+			compareByOrder(expected, actual);
+		}
+		return (0 == differenceCount);
+	}
+
+	/**
+	 * 差異数を取得する。
+	 * 
+	 * @return 差異数
+	 */
+	public long getDifferenceCount() {
+		return differenceCount;
+	}
+
+	/**
+	 * 差異の内容を取得する。
+	 * 
+	 * @param message メッセージ
+	 * @return 差異の内容
+	 */
+	public String getMessage(final String message) {
+		StringBuilder s = new StringBuilder();
+		if (null != message) {
+			s.append(message).append(" ");
+		}
+		s.append(String.format("Table not equals.[%s, %d differences]", name, differenceCount));
+		for (String difference : differences) {
+			s.append("\n  ").append(difference);
+		}
+		if (differences.size() < differenceCount) {
+			s.append(String.format("\n  ... %d more", differenceCount - differences.size()));
+		}
+		return s.toString();
+	}
+
+	private void compareByKey(final List<Record> expected, final Iterator<Record> actual) {
+		Map<List<Object>, Record> map = new LinkedHashMap<List<Object>, Record>(expected.size() * 4 / 3 + 1);
+		for (Record record : expected) {
+			List<Object> key = getKey(record, keyNames, null);
+			if (null != map.put(key, record)) {
+				addDifference(String.format("Duplicate expected key.[%s]", toString(key)));
+			}
+		}
+
+		Map<List<Object>, Boolean> matched = new HashMap<List<Object>, Boolean>();
+		while (actual.hasNext()) {
+			Record record = actual.next();
+			List<Object> key = getKey(record, keyNames, null);
+			Record exp = map.remove(key);
+			if (null != exp) {
+				matched.put(key, Boolean.TRUE);
+				compareRecord(toString(key), exp, record);
+			} else if (matched.containsKey(key)) {
+				addDifference(String.format("Duplicate actual key.[%s]", toString(key)));
+			} else {
+				addDifference(String.format("Unexpected record.[%s]", toString(key)));
+			}
+		}
+		for (List<Object> key : map.keySet()) {
+			addDifference(String.format("Missing record.[%s]", toString(key)));
+		}
+	}
+
+	private void compareByValue(final List<Record> expected, final Iterator<Record> actual) {
+		// 許容誤差内で一致させるフィールドは候補の絞り込みに使用しない
+		Set<String> tolerantNames = getTolerantNames(expected);
+
+		Map<List<Object>, List<Record>> candidates = new LinkedHashMap<List<Object>, List<Record>>(expected.size() * 4 / 3 + 1);
+		for (Record record : expected) {
+			List<Object> key = getKey(record, fieldNames, tolerantNames);
+			List<Record> list = candidates.get(key);
+			if (null == list) {
+				list = new ArrayList<Record>(1);
+				candidates.put(key, list);
+			}
+			list.add(record);
+		}
+		while (actual.hasNext()) {
+			Record record = actual.next();
+			List<Object> key = getKey(record, fieldNames, tolerantNames);
+			List<Record> list = candidates.get(key);
+			int index = -1;
+			if (null != list) {
+				for (int i = 0; i < list.size(); i++) {
+					if (tolerantNames.isEmpty() || equalsRecord(list.get(i), record)) {
+						index = i;
+						break;
+					}
+				}
+			}
+			if (-1 == index) {
+				addDifference(String.format("Unexpected record.[%s]", toString(getKey(record, fieldNames, null))));
+			} else {
+				list.remove(index);
+				if (list.isEmpty()) {
+					candidates.remove(key);
+				}
+			}
+		}
+		for (List<Record> list : candidates.values()) {
+			for (Record record : list) {
+				addDifference(String.format("Missing record.[%s]", toString(getKey(record, fieldNames, null))));
+			}
+		}
+	}
+
+	private Set<String> getTolerantNames(final List<Record> expected) {
+		boolean numeric = 0 < option.getNumericTolerance();
+		boolean timestamp = 0 < option.getTimestampTolerance();
+
+		Set<String> names = new HashSet<String>();
+		if (!numeric && !timestamp) {
+			return names;
+		}
+		for (String field : fieldNames) {
+			FieldType type = fieldTypes.get(field);
+			if (numeric && (FieldType.Integer == type || FieldType.Long == type || FieldType.Float == type || FieldType.Double == type)) {
+				names.add(field);
+			} else if (timestamp && (FieldType.Date == type || FieldType.Timestamp == type)) {
+				names.add(field);
+			}
+		}
+		for (Record record : expected) {
+			for (String field : fieldNames) {
+				Object value = record.get(field);
+				if ((numeric && value instanceof Number) || (timestamp && value instanceof java.util.Date)) {
+					names.add(field);
+				}
+			}
+		}
+		return names;
+	}
+
+	private void compareByOrder(final List<Record> expected, final Iterator<Record> actual) {
+		int row = 0;
+		while (row < expected.size() && actual.hasNext()) {
+			compareRecord(Integer.toString(row + 1), expected.get(row), actual.next());
+			row++;
+		}
+		for (int i = row; i < expected.size(); i++) {
+			addDifference(String.format("Missing record.[row %d]", i + 1));
+		}
+		while (actual.hasNext()) {
+			actual.next();
+			row++;
+			addDifference(String.format("Unexpected record.[row %d]", row));
+		}
+	}
+
+	private boolean equalsRecord(final Record expected, final Record actual) {
+		for (String field : fieldNames) {
+			if (!equalsValue(expected.get(field), actual.get(field))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void compareRecord(final String key, final Record expected, final Record actual) {
+		for (String field : fieldNames) {
+			Object exp = expected.get(field);
+			Object act = actual.get(field);
+			if (!equalsValue(exp, act)) {
+				addDifference(String.format("Value not equals.[%s, %s] expected:<%s> but was:<%s>", key, field, exp, act));
+			}
+		}
+	}
+
+	private boolean equalsValue(final Object expected, final Object actual) {
+		if (null == expected || null == actual) {
+			return (expected == actual);
+		}
+		if (expected instanceof java.util.Date || actual instanceof java.util.Date) {
+			Long exp = toMillis(expected);
+			Long act = toMillis(actual);
+			if (null != exp && null != act) {
+				return Math.abs(exp - act) <= option.getTimestampTolerance();
+			}
+		} else if (expected instanceof Number || actual instanceof Number) {
+			BigDecimal exp = toDecimal(expected);
+			BigDecimal act = toDecimal(actual);
+			if (null != exp && null != act) {
+				return exp.subtract(act).abs().compareTo(BigDecimal.valueOf(option.getNumericTolerance())) <= 0;
+			}
+		}
+		return toKeyString(expected).equals(toKeyString(actual));
+	}
+
+	private void addDifference(final String difference) {
+		differenceCount++;
+		if (differences.size() < option.getMaxDifferences()) {
+			differences.add(difference);
+		}
+	}
+
+	/**
+	 * レコードのキーを取得する。
+	 * 
+	 * @param record レコード
+	 * @param names フィールド名
+	 * @param excludeNames キーに含めないフィールド名。全て含める場合、<code>null</code>
+	 * @return 正規化した値のリスト。<code>NULL</code>は<code>null</code>のまま保持する
+	 */
+	private List<Object> getKey(final Record record, final List<String> names, final Set<String> excludeNames) {
+		List<Object> key = new ArrayList<Object>(names.size());
+		for (String name : names) {
+			if (null != excludeNames && excludeNames.contains(name)) {
+				continue;
+			}
+			Object value = record.get(name);
+			key.add((null == value) ? null : toKeyString(fieldTypes.get(name), value));
+		}
+		return key;
+	}
+
+	private static String toString(final List<Object> key) {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < key.size(); i++) {
+			if (0 != i) {
+				s.append(", ");
+			}
+			Object value = key.get(i);
+			s.append((null == value) ? "null" : "'" + value + "'");
+		}
+		return s.toString();
+	}
+
+	/**
+	 * フィールドの型に従い、キーの値を正規化する。
+	 * <p>
+	 * データベースとExcelで値のクラスが異なっても同じ値になるよう、日付は<code>yyyy-mm-dd</code>、日時は<code>yyyy-mm-dd hh:mm:ss.f</code>とする。
+	 * </p>
+	 * 
+	 * @param type フィールドの型
+	 * @param value 値
+	 * @return 正規化した値
+	 */
+	static String toKeyString(final FieldType type, final Object value) {
+		if (FieldType.Date == type) {
+			Long millis = toMillis(value);
+			if (null != millis) {
+				return new java.sql.Date(millis).toString();
+			}
+		} else if (FieldType.Timestamp == type) {
+			Timestamp timestamp = toTimestamp(value);
+			if (null != timestamp) {
+				return timestamp.toString();
+			}
+		} else if (FieldType.Integer == type || FieldType.Long == type || FieldType.Float == type || FieldType.Double == type) {
+			BigDecimal decimal = toDecimal(value);
+			if (null != decimal) {
+				return normalize(decimal);
+			}
+		}
+		return toKeyString(value);
+	}
+
+	private static String toKeyString(final Object value) {
+		if (value instanceof BigDecimal) {
+			return normalize((BigDecimal) value);
+		} else if (value instanceof Number) {
+			return normalize(new BigDecimal(value.toString()));
+		} else if (value instanceof Timestamp) {
+			return value.toString();
+		} else if (value instanceof java.sql.Date) {
+			return value.toString();
+		} else if (value instanceof java.util.Date) {
+			return new Timestamp(((java.util.Date) value).getTime()).toString();
+		}
+		return value.toString();
+	}
+
+	private static String normalize(final BigDecimal value) {
+		return (0 == value.signum()) ? "0" : value.stripTrailingZeros().toPlainString();
+	}
+
+	private static BigDecimal toDecimal(final Object value) {
+		if (value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		}
+		try {
+			return new BigDecimal(value.toString().trim());
+		} catch (NumberFormatException ex) {
+			return null;
+		}
+	}
+
+	private static Timestamp toTimestamp(final Object value) {
+		if (value instanceof Timestamp) {
+			return (Timestamp) value;
+		} else if (value instanceof java.util.Date) {
+			return new Timestamp(((java.util.Date) value).getTime());
+		}
+		String s = value.toString().trim().replace('/', '-');
+		try {
+			return (10 == s.length()) ? new Timestamp(java.sql.Date.valueOf(s).getTime()) : Timestamp.valueOf(s);
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	private static Long toMillis(final Object value) {
+		if (value instanceof java.util.Date) {
+			return ((java.util.Date) value).getTime();
+		}
+		String s = value.toString().trim().replace('/', '-');
+		try {
+			return (10 == s.length()) ? java.sql.Date.valueOf(s).getTime() : Timestamp.valueOf(s).getTime();
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+}
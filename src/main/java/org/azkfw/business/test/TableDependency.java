@@ -0,0 +1,261 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.azkfw.datasource.Table;
+
+/**
+ * このクラスは、テーブル間の外部キーによる依存関係を管理するクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class TableDependency {
+
+	private static final String SQL = "SELECT cc.relname, pc.relname FROM pg_constraint c"
+			+ " INNER JOIN pg_class cc ON c.conrelid = cc.oid INNER JOIN pg_class pc ON c.confrelid = pc.oid"
+			+ " WHERE c.contype = 'f' AND pg_table_is_visible(cc.oid)";
+
+	/** 子テーブル名 → 親テーブル名 */
+	private final Map<String, Set<String>> parents;
+
+	/**
+	 * コンストラクタ
+	 * 
+	 * @param parents 子テーブル名(小文字) → 親テーブル名(小文字)
+	 */
+	TableDependency(final Map<String, Set<String>> parents) {
+		this.parents = parents;
+	}
+
+	/**
+	 * データベースから外部キーの依存関係を読み込む。
+	 * 
+	 * @param connection コネクション
+	 * @return 依存関係
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static TableDependency load(final Connection connection) throws SQLException {
+		Map<String, Set<String>> parents = new HashMap<String, Set<String>>();
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			ps = connection.prepareStatement(SQL);
+			rs = ps.executeQuery();
+			while (rs.next()) {
+				String child = rs.getString(1).toLowerCase();
+				String parent = rs.getString(2).toLowerCase();
+				if (child.equals(parent)) {
+					continue;
+				}
+				Set<String> set = parents.get(child);
+				if (null == set) {
+					set = new HashSet<String>();
+					parents.put(child, set);
+				}
+				set.add(parent);
+			}
+		} finally {
+			if (null != rs) {
+				rs.close();
+			}
+			if (null != ps) {
+				ps.close();
+			}
+		}
+		return new TableDependency(parents);
+	}
+
+	/**
+	 * 依存関係を持たない空の依存関係を生成する。
+	 * 
+	 * @return 依存関係
+	 */
+	public static TableDependency empty() {
+		return new TableDependency(new HashMap<String, Set<String>>());
+	}
+
+	/**
+	 * テーブルの親テーブルのうち、指定テーブル内に含まれるものを取得する。
+	 * 
+	 * @param table テーブル
+	 * @param tables テーブル一覧
+	 * @return 親テーブル一覧
+	 */
+	public List<Table> getParents(final Table table, final List<Table> tables) {
+		List<Table> result = new ArrayList<Table>();
+		Set<String> set = parents.get(getKey(table));
+		if (null != set) {
+			for (Table t : tables) {
+				if (t != table && set.contains(getKey(t))) {
+					result.add(t);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * テーブル毎に、親テーブルの位置を取得する。
+	 * <p>
+	 * テーブル名の正規化は各テーブル1回のみ行うため、並べ替えや並列登録で繰り返し走査する場合はこちらを使用する。
+	 * </p>
+	 * 
+	 * @param tables テーブル一覧
+	 * @return テーブルの位置 → 指定テーブル内の親テーブルの位置
+	 */
+	public int[][] getParentIndexes(final List<Table> tables) {
+		int size = tables.size();
+		String[] keys = new String[size];
+		Map<String, List<Integer>> indexes = new HashMap<String, List<Integer>>(size * 4 / 3 + 1);
+		for (int i = 0; i < size; i++) {
+			keys[i] = getKey(tables.get(i));
+			List<Integer> list = indexes.get(keys[i]);
+			if (null == list) {
+				list = new ArrayList<Integer>(1);
+				indexes.put(keys[i], list);
+			}
+			list.add(i);
+		}
+
+		int[][] result = new int[size][];
+		List<Integer> list = new ArrayList<Integer>();
+		for (int i = 0; i < size; i++) {
+			list.clear();
+			Set<String> set = parents.get(keys[i]);
+			if (null != set) {
+				for (String parent : set) {
+					List<Integer> parentIndexes = indexes.get(parent);
+					if (null != parentIndexes) {
+						for (Integer index : parentIndexes) {
+							if (i != index) {
+								list.add(index);
+							}
+						}
+					}
+				}
+			}
+			result[i] = new int[list.size()];
+			for (int j = 0; j < result[i].length; j++) {
+				result[i][j] = list.get(j);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 親テーブルの位置から、子テーブルの位置を求める。
+	 * 
+	 * @param parentIndexes テーブルの位置 → 親テーブルの位置
+	 * @return テーブルの位置 → 子テーブルの位置
+	 */
+	public static int[][] getChildIndexes(final int[][] parentIndexes) {
+		int[] counts = new int[parentIndexes.length];
+		for (int[] parentIndex : parentIndexes) {
+			for (int parent : parentIndex) {
+				counts[parent]++;
+			}
+		}
+		int[][] result = new int[parentIndexes.length][];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = new int[counts[i]];
+			counts[i] = 0;
+		}
+		for (int i = 0; i < parentIndexes.length; i++) {
+			for (int parent : parentIndexes[i]) {
+				result[parent][counts[parent]++] = i;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 登録順（親テーブルが先）に並べ替える。
+	 * <p>
+	 * 依存関係がないテーブル同士はワークブックの逆順を維持する。循環参照がある場合、残りのテーブルは元の順序で追加する。
+	 * </p>
+	 * 
+	 * @param tables テーブル一覧（ワークブック順）
+	 * @return 登録順のテーブル一覧
+	 */
+	public List<Table> sort(final List<Table> tables) {
+		int size = tables.size();
+		List<Table> reversed = new ArrayList<Table>(size);
+		for (int i = size - 1; i >= 0; i--) {
+			reversed.add(tables.get(i));
+		}
+
+		// 入次数による位相ソート(Kahn)。登録可能なテーブルのうち先頭のものから登録する
+		int[][] parentIndexes = getParentIndexes(reversed);
+		int[][] childIndexes = getChildIndexes(parentIndexes);
+		int[] degrees = new int[size];
+		PriorityQueue<Integer> ready = new PriorityQueue<Integer>();
+		for (int i = 0; i < size; i++) {
+			degrees[i] = parentIndexes[i].length;
+			if (0 == degrees[i]) {
+				ready.add(i);
+			}
+		}
+
+		List<Table> result = new ArrayList<Table>(size);
+		boolean[] done = new boolean[size];
+		int first = 0;
+		while (result.size() < size) {
+			Integer next = ready.poll();
+			if (null == next) {
+				// 循環参照
+				while (done[first]) {
+					first++;
+				}
+				next = first;
+			} else if (done[next]) {
+				continue;
+			}
+			done[next] = true;
+			result.add(reversed.get(next));
+			for (int child : childIndexes[next]) {
+				if (0 == --degrees[child] && !done[child]) {
+					ready.add(child);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static String getKey(final Table table) {
+		String name = table.getName().toLowerCase();
+		int index = name.lastIndexOf('.');
+		if (-1 != index) {
+			name = name.substring(index + 1);
+		}
+		return name;
+	}
+}
@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * このクラスは、PostgreSQLのテンプレートデータベースを操作するクラスです。
+ * <p>
+ * データベースの作成・削除はメンテナンス用データベース<code>postgres</code>に接続して行う。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class TemplateDatabaseSupport {
+
+	private static final String MAINTENANCE_DATABASE = "postgres";
+
+	/** 他セッションの切断を待つ時間(ミリ秒) */
+	private static final long SESSION_WAIT_TIME = 5000;
+
+	private TemplateDatabaseSupport() {
+	}
+
+	/**
+	 * URLからデータベース名を取得する。
+	 * 
+	 * @param url URL(<code>jdbc:postgresql://host:port/database?params</code>)
+	 * @return データベース名
+	 */
+	public static String getDatabaseName(final String url) {
+		int start = url.indexOf('/', url.indexOf("//") + 2) + 1;
+		int end = url.indexOf('?', start);
+		return (-1 == end) ? url.substring(start) : url.substring(start, end);
+	}
+
+	/**
+	 * URLのデータベース名を置き換える。
+	 * 
+	 * @param url URL
+	 * @param database データベース名
+	 * @return URL
+	 */
+	public static String replaceDatabaseName(final String url, final String database) {
+		int start = url.indexOf('/', url.indexOf("//") + 2) + 1;
+		int end = url.indexOf('?', start);
+		return url.substring(0, start) + database + ((-1 == end) ? "" : url.substring(end));
+	}
+
+	/**
+	 * テンプレートからデータベースを作成する。
+	 * <p>
+	 * 同名のデータベースが存在する場合は削除してから作成する。<br />
+	 * テンプレートまたは作成するデータベースに他のセッションが接続している場合、切断されるまで待機し、切断されない場合はエラーとする。
+	 * 他のセッションを強制的に切断することはない。
+	 * </p>
+	 * 
+	 * @param p データソース設定
+	 * @param database 作成するデータベース名
+	 * @param template テンプレートデータベース名
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static void createDatabase(final Properties p, final String database, final String template) throws SQLException {
+		Connection connection = null;
+		Statement stmt = null;
+		try {
+			connection = getMaintenanceConnection(p);
+			waitSessions(connection, template);
+			waitSessions(connection, database);
+
+			stmt = connection.createStatement();
+			stmt.executeUpdate(String.format("DROP DATABASE IF EXISTS %s", quoteIdentifier(database)));
+			stmt.executeUpdate(String.format("CREATE DATABASE %s TEMPLATE %s", quoteIdentifier(database), quoteIdentifier(template)));
+		} finally {
+			if (null != stmt) {
+				stmt.close();
+			}
+			if (null != connection) {
+				connection.close();
+			}
+		}
+	}
+
+	/**
+	 * 識別子を引用符で囲む。
+	 * 
+	 * @param identifier 識別子
+	 * @return 引用符で囲んだ識別子
+	 */
+	public static String quoteIdentifier(final String identifier) {
+		return "\"" + identifier.replace("\"", "\"\"") + "\"";
+	}
+
+	private static void waitSessions(final Connection connection, final String database) throws SQLException {
+		long limit = System.currentTimeMillis() + SESSION_WAIT_TIME;
+		int sessions = countSessions(connection, database);
+		while (0 < sessions && System.currentTimeMillis() < limit) {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			sessions = countSessions(connection, database);
+		}
+		if (0 < sessions) {
+			throw new SQLException(String.format("Database is being accessed by other sessions.[%s, %d sessions]", database, sessions));
+		}
+	}
+
+	private static int countSessions(final Connection connection, final String database) throws SQLException {
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			ps = connection.prepareStatement("SELECT count(*) FROM pg_stat_activity WHERE datname = ? AND pid <> pg_backend_pid()");
+			ps.setString(1, database);
+			rs = ps.executeQuery();
+			return (rs.next()) ? rs.getInt(1) : 0;
+		} finally {
+			if (null != rs) {
+				rs.close();
+			}
+			if (null != ps) {
+				ps.close();
+			}
+		}
+	}
+
+	private static Connection getMaintenanceConnection(final Properties p) throws SQLException {
+		String driver = p.getProperty("driverClassName");
+		if (null != driver && 0 < driver.length()) {
+			try {
+				Class.forName(driver);
+			} catch (ClassNotFoundException ex) {
+				throw new SQLException(String.format("Not found driver.[%s]", driver), ex);
+			}
+		}
+		String url = replaceDatabaseName(p.getProperty("url"), MAINTENANCE_DATABASE);
+		Connection connection = DriverManager.getConnection(url, p.getProperty("username"), p.getProperty("password"));
+		connection.setAutoCommit(true);
+		return connection;
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.sql.Connection;
+
+import org.azkfw.persistence.database.DatabaseConnection;
+
+/**
+ * このクラスは、テストメソッドで共有するコネクションを保持するクラスです。
+ * <p>
+ * {@link org.azkfw.business.test.annotation.SharedConnection}を指定したテストの実行中、テストを実行するスレッドから共有コネクションを取得できる。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public final class TestConnectionHolder {
+
+	private static final ThreadLocal<DatabaseConnection> DATABASE_CONNECTION = new ThreadLocal<DatabaseConnection>();
+
+	private static final ThreadLocal<Connection> CONNECTION = new ThreadLocal<Connection>();
+
+	private TestConnectionHolder() {
+	}
+
+	/**
+	 * 共有コネクションを取得する。
+	 * 
+	 * @return コネクション。共有していない場合、<code>null</code>
+	 */
+	public static DatabaseConnection getDatabaseConnection() {
+		return DATABASE_CONNECTION.get();
+	}
+
+	/**
+	 * 共有コネクションを取得する。
+	 * 
+	 * @return コネクション。共有していない場合、<code>null</code>
+	 */
+	public static Connection getConnection() {
+		return CONNECTION.get();
+	}
+
+	static void bind(final Connection connection, final DatabaseConnection databaseConnection) {
+		CONNECTION.set(connection);
+		DATABASE_CONNECTION.set(databaseConnection);
+	}
+
+	static void unbind() {
+		CONNECTION.remove();
+		DATABASE_CONNECTION.remove();
+	}
+}
@@ -0,0 +1,245 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * このクラスは、ワーカー毎のスキーマを管理するクラスです。
+ * <p>
+ * 以下のシステムプロパティで設定する。
+ * <ul>
+ * <li><code>azkfw.test.worker.schema</code> - <code>true</code>の場合、ワーカー毎のスキーマを使用する</li>
+ * <li><code>azkfw.test.worker.id</code> - ワーカーID（省略時はプロセスID）。surefireの<code>${surefire.forkNumber}</code>を指定する</li>
+ * <li><code>azkfw.test.worker.scope</code> - <code>fork</code>（既定）または<code>thread</code></li>
+ * <li><code>azkfw.test.worker.baseSchema</code> - 複製元スキーマ（既定は<code>public</code>）</li>
+ * </ul>
+ * </p>
+ * <p>
+ * 複製するのはテーブル（列・制約・インデックス・外部キー）のみである。ビュー、関数、トリガー、シーケンスは複製しないため、
+ * ビューや関数から参照するテーブルは作成時に解決された複製元スキーマのテーブルのままとなり、シーケンスは全ワーカーで共有する。
+ * これらを経由した更新・参照はワーカー間で分離されない。<br />
+ * ワーカーのスキーマはJVM終了時に削除する。
+ * </p>
+ * <p>
+ * <code>thread</code>の場合、クラス単位のデータソースの登録はスキーマ毎に行う。
+ * テンプレートデータベースはデータベース全体を再作成するため、<code>thread</code>と併用できない。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+final class WorkerSchemaSupport {
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	private static final ThreadLocal<Integer> THREAD_INDEX = new ThreadLocal<Integer>() {
+		@Override
+		protected Integer initialValue() {
+			return THREAD_COUNTER.incrementAndGet();
+		}
+	};
+
+	private WorkerSchemaSupport() {
+	}
+
+	/**
+	 * ワーカー毎のスキーマを使用するか判断する。
+	 * 
+	 * @return 使用する場合、<code>true</code>
+	 */
+	public static boolean isEnabled() {
+		return "true".equalsIgnoreCase(System.getProperty("azkfw.test.worker.schema"));
+	}
+
+	/**
+	 * スレッド毎のスキーマを使用するか判断する。
+	 * 
+	 * @return スレッド毎の場合、<code>true</code>
+	 */
+	public static boolean isThreadScope() {
+		return "thread".equalsIgnoreCase(System.getProperty("azkfw.test.worker.scope"));
+	}
+
+	/**
+	 * 複製元スキーマ名を取得する。
+	 * 
+	 * @return スキーマ名
+	 */
+	public static String getBaseSchema() {
+		return System.getProperty("azkfw.test.worker.baseSchema", "public");
+	}
+
+	/**
+	 * 現在のワーカー(フォーク)のIDを取得する。
+	 * <p>
+	 * 識別子に使用できるよう、英小文字・数字・アンダースコア以外の文字は置き換える。
+	 * </p>
+	 * 
+	 * @return ワーカーID
+	 */
+	public static String getWorkerId() {
+		String id = System.getProperty("azkfw.test.worker.id");
+		if (null == id || 0 == id.length()) {
+			String name = ManagementFactory.getRuntimeMXBean().getName();
+			int index = name.indexOf('@');
+			id = (-1 == index) ? name : name.substring(0, index);
+		}
+		return id.toLowerCase().replaceAll("[^a-z0-9_]", "_");
+	}
+
+	/**
+	 * 現在のワーカーのスキーマ名を取得する。
+	 * 
+	 * @return スキーマ名
+	 */
+	public static String getSchema() {
+		StringBuilder schema = new StringBuilder("azkfw_w");
+		schema.append(getWorkerId());
+		if (isThreadScope()) {
+			schema.append("_t").append(THREAD_INDEX.get());
+		}
+		return schema.toString();
+	}
+
+	/**
+	 * コネクションの検索パスをワーカーのスキーマに設定する。
+	 * 
+	 * @param connection コネクション
+	 * @param schema スキーマ名
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static void setSearchPath(final Connection connection, final String schema) throws SQLException {
+		Statement stmt = null;
+		try {
+			stmt = connection.createStatement();
+			stmt.execute(String.format("SET search_path TO %s, %s", schema, getBaseSchema()));
+		} finally {
+			if (null != stmt) {
+				stmt.close();
+			}
+		}
+	}
+
+	/**
+	 * ワーカーのスキーマを削除する。
+	 * 
+	 * @param connection コネクション
+	 * @param schema ワーカーのスキーマ名
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static void drop(final Connection connection, final String schema) throws SQLException {
+		Statement stmt = null;
+		try {
+			stmt = connection.createStatement();
+			stmt.executeUpdate(String.format("DROP SCHEMA IF EXISTS %s CASCADE", schema));
+		} finally {
+			if (null != stmt) {
+				stmt.close();
+			}
+		}
+	}
+
+	/**
+	 * 複製元スキーマのテーブルをワーカーのスキーマに複製する。
+	 * <p>
+	 * ワーカーのスキーマが存在する場合は削除してから作成する。テーブルは<code>LIKE ... INCLUDING ALL</code>で複製し、外部キーは複製後に再作成する。
+	 * テーブル以外のオブジェクトは複製しない。
+	 * </p>
+	 * 
+	 * @param connection コネクション
+	 * @param schema ワーカーのスキーマ名
+	 * @param names 複製対象のテーブル名
+	 * @throws SQLException SQL実行時に問題が発生した場合
+	 */
+	public static void clone(final Connection connection, final String schema, final Collection<String> names) throws SQLException {
+		String base = getBaseSchema();
+
+		Set<String> targets = new HashSet<String>();
+		for (String name : names) {
+			targets.add(name.toLowerCase());
+		}
+
+		List<String> tables = new ArrayList<String>();
+		List<String[]> foreignKeys = new ArrayList<String[]>();
+		Statement stmt = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			stmt = connection.createStatement();
+			// 外部キー定義を複製元スキーマ基準の非修飾名で取得する
+			stmt.execute(String.format("SET LOCAL search_path TO %s", base));
+
+			ps = connection.prepareStatement("SELECT tablename FROM pg_tables WHERE schemaname = ? ORDER BY tablename");
+			ps.setString(1, base);
+			rs = ps.executeQuery();
+			while (rs.next()) {
+				String table = rs.getString(1);
+				if (targets.contains(table.toLowerCase())) {
+					tables.add(table);
+				}
+			}
+			rs.close();
+			ps.close();
+
+			ps = connection.prepareStatement("SELECT cc.relname, c.conname, pg_get_constraintdef(c.oid) FROM pg_constraint c"
+					+ " INNER JOIN pg_class cc ON c.conrelid = cc.oid INNER JOIN pg_namespace n ON cc.relnamespace = n.oid"
+					+ " WHERE c.contype = 'f' AND n.nspname = ?");
+			ps.setString(1, base);
+			rs = ps.executeQuery();
+			while (rs.next()) {
+				if (targets.contains(rs.getString(1).toLowerCase())) {
+					foreignKeys.add(new String[] { rs.getString(1), rs.getString(2), rs.getString(3) });
+				}
+			}
+
+			stmt.executeUpdate(String.format("DROP SCHEMA IF EXISTS %s CASCADE", schema));
+			stmt.executeUpdate(String.format("CREATE SCHEMA %s", schema));
+			for (String table : tables) {
+				stmt.executeUpdate(String.format("CREATE TABLE %s.%s (LIKE %s.%s INCLUDING ALL)", schema, table, base, table));
+			}
+
+			stmt.execute(String.format("SET LOCAL search_path TO %s", schema));
+			for (String[] fk : foreignKeys) {
+				stmt.executeUpdate(String.format("ALTER TABLE %s ADD CONSTRAINT %s %s", fk[0], fk[1], fk[2]));
+			}
+		} finally {
+			if (null != rs) {
+				rs.close();
+			}
+			if (null != ps) {
+				ps.close();
+			}
+			if (null != stmt) {
+				stmt.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * このアノテーションは、データソース登録時のバッチ挿入を指定する。
+ * <p>
+ * 指定した場合、1レコード分のINSERT文を再利用し、指定件数ごとにバッチ実行する。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BatchInsert {
+
+	/**
+	 * バッチサイズ
+	 * 
+	 * @return バッチサイズ
+	 */
+	int value() default 1000;
+
+	/**
+	 * テーブル毎のバッチサイズ
+	 * 
+	 * @return テーブル毎のバッチサイズ
+	 */
+	TableSize[] tables() default {};
+
+	/**
+	 * このアノテーションは、テーブル毎のバッチサイズを指定する。
+	 */
+	@Target({})
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface TableSize {
+
+		/**
+		 * テーブル名
+		 * 
+		 * @return テーブル名
+		 */
+		String name();
+
+		/**
+		 * バッチサイズ
+		 * 
+		 * @return バッチサイズ
+		 */
+		int size();
+	}
+}
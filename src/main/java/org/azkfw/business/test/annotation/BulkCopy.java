@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * このアノテーションは、データソース登録時のCOPYによる一括登録を指定する。
+ * <p>
+ * PostgreSQLのCOPY ... FROM STDINが利用できない場合、INSERTによる登録を行う。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BulkCopy {
+
+	/**
+	 * フォーマット
+	 * 
+	 * @return フォーマット
+	 */
+	Format format() default Format.TEXT;
+
+	/**
+	 * このクラスは、COPYのフォーマットを定義した列挙型です。
+	 */
+	public enum Format {
+		/** テキスト形式 */
+		TEXT,
+		/** バイナリ形式 */
+		BINARY
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.azkfw.business.test.ConnectionFactory;
+import org.azkfw.business.test.DBCPConnectionFactory;
+
+/**
+ * このアノテーションは、テストで使用するコネクションプールを指定する。
+ * <p>
+ * コネクションプールはフォーク内で共有するため、最初に実行したテストクラスの指定が有効となる。
+ * 以降のテストクラスで異なるファクトリを指定した場合、テストは失敗する。<code>warmUp</code>はプール生成時のみ適用する。<br />
+ * 既定値以外を指定した属性のみ、データソース設定の<code>connectionFactory</code>、<code>connectionFactory.warmUp</code>より優先する。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConnectionPool {
+
+	/**
+	 * コネクションファクトリ
+	 * 
+	 * @return コネクションファクトリのクラス
+	 */
+	Class<? extends ConnectionFactory> factory() default DBCPConnectionFactory.class;
+
+	/**
+	 * 最初のテスト前に生成するコネクション数
+	 * 
+	 * @return コネクション数
+	 */
+	int warmUp() default 0;
+}
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * このアノテーションは、データソースのテーブルを並列に登録することを指定する。
+ * <p>
+ * 指定した場合、外部キーの依存関係がないテーブルを複数のコネクションで同時に登録する。親テーブルは必ず子テーブルより先に登録する。<br />
+ * テーブル毎にコミットするため、登録は1つのトランザクションにならない。
+ * </p>
+ * <p>
+ * 全テーブルの削除をコミットしてから登録を開始する。登録に失敗した場合は未開始のテーブルの登録を中止してテストを失敗させ、
+ * 登録できなかったテーブルは空のまま残る(失敗メッセージに一覧を出力する)。差分再登録を使用している場合、次のテストで再登録する。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ParallelLoad {
+
+	/**
+	 * スレッド数
+	 * <p>
+	 * コネクションプールの最大接続数-1を上限とする。
+	 * </p>
+	 * 
+	 * @return スレッド数
+	 */
+	int value() default 4;
+}
@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * このアノテーションは、テストメソッド内でDynamicSQLの実行に1つのコネクションを共有することを指定する。
+ * <p>
+ * 指定した場合、テストメソッド内の<code>count</code>、<code>query</code>、<code>execute</code>、<code>update</code>は同じトランザクションで実行され、
+ * コミット前の変更を参照できる。コネクションはテスト対象の業務処理からも{@link org.azkfw.business.test.TestConnectionHolder}で取得できる。<br />
+ * トランザクションは共有トランザクション(<code>beginSharedTransaction()</code>)で管理し、テスト終了時にロールバックされる。
+ * </p>
+ * <p>
+ * <code>commit = true</code>は{@link RollbackIsolation}と併用できない(テストはエラーとなる)。
+ * 更新テーブルの追跡による差分再登録を使用している場合、コミットした変更は次のテストの開始前に元に戻される。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SharedConnection {
+
+	/**
+	 * テスト終了時にコミットするか
+	 * 
+	 * @return コミットする場合、<code>true</code>
+	 */
+	boolean commit() default false;
+}
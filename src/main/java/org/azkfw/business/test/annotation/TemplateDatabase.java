@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * このアノテーションは、テンプレートデータベースによる初期化用データソースの復元を指定する。
+ * <p>
+ * 指定した場合、初期化用データソースを初めて登録した後にデータベースをテンプレートとして複製し、
+ * 以降は<code>CREATE DATABASE ... TEMPLATE</code>で作業用データベースを再作成する。<br />
+ * テンプレートは<code>&lt;データベース名&gt;_tpl_&lt;キー&gt;_w&lt;ワーカーID&gt;</code>、作業用データベースは<code>&lt;データベース名&gt;_work_w&lt;ワーカーID&gt;</code>とし、
+ * 並列フォーク間で共有しない。ワーカーIDはシステムプロパティ<code>azkfw.test.worker.id</code>(省略時はプロセスID)とする。
+ * </p>
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TemplateDatabase {
+
+}
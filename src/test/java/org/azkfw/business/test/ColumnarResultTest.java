@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * このクラスは、{@link ColumnarResult}のテストクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public class ColumnarResultTest extends TestCase {
+
+	public void testNull() throws SQLException {
+		ColumnarResult result = read(new String[] { "ID", "RATE", "NAME" }, new int[] { Types.INTEGER, Types.DOUBLE, Types.VARCHAR },
+				new Object[][] { { 1, 1.5, "a" }, { null, null, null } });
+
+		assertEquals(2, result.size());
+		assertEquals(Integer.valueOf(1), result.getObject(0, 0));
+		assertEquals(Double.valueOf(1.5), result.getObject(0, "rate"));
+		assertFalse(result.isNull(0, 2));
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(result.isNull(1, i));
+			assertNull(result.getObject(1, i));
+		}
+		assertEquals(0L, result.getLong(1, 0));
+		assertEquals(0.0, result.getDouble(1, 1), 0.0);
+		assertNull(result.asMaps().get(1).get("NAME"));
+	}
+
+	public void testDuplicateLabel() throws SQLException {
+		ColumnarResult result = read(new String[] { "ID", "NAME", "id" }, new int[] { Types.BIGINT, Types.VARCHAR, Types.BIGINT },
+				new Object[][] { { 1L, "a", 2L } });
+
+		assertEquals(3, result.getColumnCount());
+		assertEquals(2, result.getColumnIndex("ID"));
+		assertEquals(Long.valueOf(2), result.getObject(0, "Id"));
+
+		Map<String, Object> record = result.asMaps().get(0);
+		assertEquals(2, record.size());
+		assertEquals(2, record.entrySet().size());
+		assertEquals(Long.valueOf(2), record.get("ID"));
+		assertEquals(2, result.asTable("t").getFields().size());
+	}
+
+	public void testGrowth() throws SQLException {
+		int size = 1000;
+		Object[][] rows = new Object[size][];
+		for (int i = 0; i < size; i++) {
+			rows[i] = new Object[] { i, (0 == i % 7) ? null : i * 0.5, "r" + i };
+		}
+		ColumnarResult result = read(new String[] { "ID", "RATE", "NAME" }, new int[] { Types.INTEGER, Types.DOUBLE, Types.VARCHAR }, rows);
+
+		assertEquals(size, result.size());
+		for (int i = 0; i < size; i++) {
+			assertEquals(i, result.getLong(i, 0));
+			assertEquals(0 == i % 7, result.isNull(i, 1));
+			if (0 != i % 7) {
+				assertEquals(i * 0.5, result.getDouble(i, 1), 0.0);
+			}
+			assertEquals("r" + i, result.getObject(i, 2));
+		}
+		try {
+			result.getObject(size, 0);
+			fail();
+		} catch (IndexOutOfBoundsException ex) {
+		}
+	}
+
+	public void testEmpty() throws SQLException {
+		ColumnarResult result = read(new String[] { "ID" }, new int[] { Types.INTEGER }, new Object[0][]);
+
+		assertEquals(0, result.size());
+		assertTrue(result.asMaps().isEmpty());
+	}
+
+	private static ColumnarResult read(final String[] labels, final int[] types, final Object[][] rows) throws SQLException {
+		final ResultSetMetaData meta = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+				new Class<?>[] { ResultSetMetaData.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(final Object proxy, final Method method, final Object[] args) {
+						String name = method.getName();
+						if ("getColumnCount".equals(name)) {
+							return labels.length;
+						} else if ("getColumnType".equals(name)) {
+							return types[(Integer) args[0] - 1];
+						} else if ("getColumnLabel".equals(name) || "getColumnName".equals(name)) {
+							return labels[(Integer) args[0] - 1];
+						}
+						throw new UnsupportedOperationException(name);
+					}
+				});
+
+		final List<Object[]> records = new ArrayList<Object[]>();
+		for (Object[] row : rows) {
+			records.add(row);
+		}
+		ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+				new InvocationHandler() {
+					private int row = -1;
+					private Object last;
+
+					@Override
+					public Object invoke(final Object proxy, final Method method, final Object[] args) {
+						String name = method.getName();
+						if ("getMetaData".equals(name)) {
+							return meta;
+						} else if ("getFetchSize".equals(name)) {
+							return 0;
+						} else if ("next".equals(name)) {
+							row++;
+							return row < records.size();
+						} else if ("wasNull".equals(name)) {
+							return null == last;
+						} else if ("getObject".equals(name) || "getLong".equals(name) || "getDouble".equals(name)) {
+							last = records.get(row)[(Integer) args[0] - 1];
+							if ("getLong".equals(name)) {
+								return (null == last) ? 0L : ((Number) last).longValue();
+							} else if ("getDouble".equals(name)) {
+								return (null == last) ? 0.0 : ((Number) last).doubleValue();
+							}
+							return last;
+						}
+						throw new UnsupportedOperationException(name);
+					}
+				});
+		return ColumnarResult.read(rs);
+	}
+}
@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.azkfw.datasource.Datasource;
+import org.azkfw.datasource.Field;
+import org.azkfw.datasource.FieldType;
+import org.azkfw.datasource.Record;
+import org.azkfw.datasource.Table;
+
+/**
+ * このクラスは、{@link DatasourceFileCache}のテストクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public class DatasourceFileCacheTest extends TestCase {
+
+	private static final String PROPERTY = "azkfw.test.datasource.cache.dir";
+
+	private File dir;
+
+	private String property;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		dir = File.createTempFile("azuki-cache", "");
+		dir.delete();
+		dir.mkdirs();
+		property = System.getProperty(PROPERTY);
+		System.setProperty(PROPERTY, dir.getAbsolutePath());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (null == property) {
+			System.clearProperty(PROPERTY);
+		} else {
+			System.setProperty(PROPERTY, property);
+		}
+		File[] files = dir.listFiles();
+		if (null != files) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		dir.delete();
+		super.tearDown();
+	}
+
+	public void testKey() {
+		String key = DatasourceFileCache.getKey("a.xlsx", new byte[] { 1, 2, 3 });
+		assertEquals(40, key.length());
+		assertEquals(key, DatasourceFileCache.getKey("a.xlsx", new byte[] { 1, 2, 3 }));
+		assertFalse(key.equals(DatasourceFileCache.getKey("b.xlsx", new byte[] { 1, 2, 3 })));
+		assertFalse(key.equals(DatasourceFileCache.getKey("a.xlsx", new byte[] { 1, 2, 4 })));
+	}
+
+	public void testMissing() throws IOException {
+		assertNull(DatasourceFileCache.load("missing"));
+	}
+
+	public void testRoundTrip() throws IOException {
+		Timestamp timestamp = Timestamp.valueOf("2015-01-27 10:11:12.123456789");
+		Object[] values = { "text", Integer.valueOf(1), Long.valueOf(2L), Double.valueOf(3.5), Float.valueOf(4.5f), Short.valueOf((short) 5),
+				new BigDecimal("6.70"), BigInteger.valueOf(8), Boolean.TRUE, java.sql.Date.valueOf("2015-01-27"), timestamp,
+				Time.valueOf("10:11:12"), new java.util.Date(1000L), new byte[] { 9, 10 }, null };
+		Field[] fields = new Field[values.length];
+		for (int i = 0; i < fields.length; i++) {
+			fields[i] = new SimpleDatasource.SimpleField("l" + i, "f" + i, (0 == i % 2) ? FieldType.String : null);
+		}
+		SimpleDatasource.SimpleTable table = new SimpleDatasource.SimpleTable("label", "name", Arrays.asList(fields));
+		table.addRecord(values);
+		SimpleDatasource datasource = new SimpleDatasource("test");
+		datasource.addTable(table);
+
+		DatasourceFileCache.store("round", datasource);
+		Datasource result = DatasourceFileCache.load("round");
+
+		assertNotNull(result);
+		assertEquals("test", result.getName());
+		assertEquals(1, result.getTables().size());
+		Table resultTable = result.getTables().get(0);
+		assertEquals("label", resultTable.getLabel());
+		assertEquals("name", resultTable.getName());
+		List<Field> resultFields = resultTable.getFields();
+		assertEquals(values.length, resultFields.size());
+		for (int i = 0; i < fields.length; i++) {
+			assertEquals("l" + i, resultFields.get(i).getLabel());
+			assertEquals("f" + i, resultFields.get(i).getName());
+			assertEquals(fields[i].getType(), resultFields.get(i).getType());
+		}
+		assertEquals(1, resultTable.getRecords().size());
+		Record record = resultTable.getRecords().get(0);
+		for (int i = 0; i < values.length; i++) {
+			Object value = record.get("f" + i);
+			if (values[i] instanceof byte[]) {
+				assertTrue(Arrays.equals((byte[]) values[i], (byte[]) value));
+			} else {
+				assertEquals("f" + i, values[i], value);
+				if (null != value) {
+					assertEquals("f" + i, values[i].getClass(), value.getClass());
+				}
+			}
+		}
+		assertEquals(123456789, ((Timestamp) record.get("f10")).getNanos());
+	}
+
+	public void testUnknownFieldTypeIsError() throws IOException {
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(dir, "unknown.dat")));
+		try {
+			out.writeInt(0x415a4453);
+			out.writeInt(1);
+			writeString(out, "test");
+			out.writeInt(1);
+			writeString(out, "label");
+			writeString(out, "name");
+			out.writeInt(1);
+			writeString(out, "l");
+			writeString(out, "f");
+			writeString(out, "NoSuchType");
+			out.writeInt(0);
+		} finally {
+			out.close();
+		}
+		assertCorrupt("unknown");
+	}
+
+	public void testTruncatedIsError() throws IOException {
+		storeSimple("truncated");
+		File file = new File(dir, "truncated.dat");
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(file.length() - 3);
+		} finally {
+			raf.close();
+		}
+		assertCorrupt("truncated");
+	}
+
+	public void testInvalidLengthIsError() throws IOException {
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(dir, "length.dat")));
+		try {
+			out.writeInt(0x415a4453);
+			out.writeInt(1);
+			out.writeInt(Integer.MAX_VALUE);
+		} finally {
+			out.close();
+		}
+		assertCorrupt("length");
+	}
+
+	public void testOtherVersionIsMiss() throws IOException {
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(dir, "version.dat")));
+		try {
+			out.writeInt(0x415a4453);
+			out.writeInt(999);
+		} finally {
+			out.close();
+		}
+		assertNull(DatasourceFileCache.load("version"));
+	}
+
+	private void storeSimple(final String key) throws IOException {
+		SimpleDatasource.SimpleTable table = new SimpleDatasource.SimpleTable("t", "t", Arrays.<Field> asList(new SimpleDatasource.SimpleField(
+				"c", "c", FieldType.String)));
+		table.addRecord(new Object[] { "value" });
+		SimpleDatasource datasource = new SimpleDatasource("test");
+		datasource.addTable(table);
+		DatasourceFileCache.store(key, datasource);
+	}
+
+	private static void assertCorrupt(final String key) {
+		try {
+			DatasourceFileCache.load(key);
+			fail("Corrupt cache loaded.");
+		} catch (IOException ex) {
+			// 呼び出し元はキャッシュなしとして扱う
+		}
+	}
+
+	private static void writeString(final DataOutputStream out, final String string) throws IOException {
+		byte[] bytes = string.getBytes("UTF-8");
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
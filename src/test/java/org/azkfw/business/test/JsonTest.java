@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * このクラスは、{@link Json}のテストクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public class JsonTest extends TestCase {
+
+	public void testQuote() {
+		assertEquals("null", Json.quote(null));
+		assertEquals("\"\"", Json.quote(""));
+		assertEquals("\"a\\\"b\\\\c\"", Json.quote("a\"b\\c"));
+		assertEquals("\"\\n\\r\\t\\u0001\"", Json.quote("\n\r\t\u0001"));
+		assertEquals("\"日本語\"", Json.quote("日本語"));
+	}
+
+	public void testQuoteRoundTrip() {
+		String string = "a\"b\\c\n\r\t\b\f\u0000/日本語";
+		assertEquals(string, Json.parse(Json.quote(string)));
+	}
+
+	@SuppressWarnings("unchecked")
+	public void testParseObject() {
+		Object value = Json.parse(" { \"a\" : 1 , \"b\" : [ true , false , null ] , \"c\" : { } , \"d\" : [ ] } ");
+		assertTrue(value instanceof Map);
+
+		Map<String, Object> map = (Map<String, Object>) value;
+		assertEquals(Arrays.asList("a", "b", "c", "d"), Arrays.asList(map.keySet().toArray()));
+		assertEquals(new BigDecimal("1"), map.get("a"));
+		assertEquals(Arrays.asList(Boolean.TRUE, Boolean.FALSE, null), map.get("b"));
+		assertTrue(((Map<?, ?>) map.get("c")).isEmpty());
+		assertTrue(((List<?>) map.get("d")).isEmpty());
+	}
+
+	public void testParseNumber() {
+		assertEquals(new BigDecimal("-12.5"), Json.parse("-12.5"));
+		assertEquals(new BigDecimal("1.5E+3"), Json.parse("1.5e3"));
+		assertEquals(new BigDecimal("12345678901234567890"), Json.parse("12345678901234567890"));
+	}
+
+	public void testParseEscape() {
+		assertEquals("a\"b\\c/\n\u3042", Json.parse("\"a\\\"b\\\\c\\/\\n\\u3042\""));
+	}
+
+	public void testParseError() {
+		String[] jsons = { "", "{", "[1,", "{\"a\" 1}", "{a:1}", "\"abc", "1 2", "\"\\u12\"", "\"\\u12zz\"", "tru", "1e" };
+		for (String json : jsons) {
+			try {
+				Json.parse(json);
+				fail(json);
+			} catch (IllegalArgumentException ex) {
+				assertTrue(ex.getMessage().startsWith("JSON parse error."));
+			}
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+
+/**
+ * このクラスは、{@link PostgreSQLCopyLoader}のテストクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public class PostgreSQLCopyLoaderTest extends TestCase {
+
+	private TimeZone timeZone;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		timeZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		TimeZone.setDefault(timeZone);
+		super.tearDown();
+	}
+
+	public void testBinaryDate() {
+		assertEquals(0, PostgreSQLCopyLoader.toBinaryDate(java.sql.Date.valueOf("2000-01-01")));
+		assertEquals(1, PostgreSQLCopyLoader.toBinaryDate(java.sql.Date.valueOf("2000-01-02")));
+		assertEquals(-1, PostgreSQLCopyLoader.toBinaryDate(java.sql.Date.valueOf("1999-12-31")));
+		assertEquals(1, PostgreSQLCopyLoader.toBinaryDate("2000-01-02"));
+		// 時刻を含む値は日付のみを使用する
+		assertEquals(0, PostgreSQLCopyLoader.toBinaryDate(Timestamp.valueOf("2000-01-01 23:59:59")));
+	}
+
+	public void testBinaryTimestamp() {
+		assertEquals(0L, PostgreSQLCopyLoader.toBinaryTimestamp(Timestamp.valueOf("2000-01-01 00:00:00"), false));
+		assertEquals(1000001L, PostgreSQLCopyLoader.toBinaryTimestamp(Timestamp.valueOf("2000-01-01 00:00:01.000001"), false));
+		assertEquals(-1000000L, PostgreSQLCopyLoader.toBinaryTimestamp("1999-12-31 23:59:59", false));
+	}
+
+	public void testBinaryTimestampZoned() {
+		// 2000-01-01 00:00:00 JST = 1999-12-31 15:00:00 UTC
+		assertEquals(-9L * 3600L * 1000000L, PostgreSQLCopyLoader.toBinaryTimestamp(Timestamp.valueOf("2000-01-01 00:00:00"), true));
+	}
+
+	public void testBoolean() {
+		String[] trues = { "t", "true", "TRUE", "tr", "y", "yes", "on", "1", " true " };
+		for (String value : trues) {
+			assertTrue(value, PostgreSQLCopyLoader.toBoolean(value));
+		}
+		String[] falses = { "f", "false", "fa", "n", "no", "off", "of", "0" };
+		for (String value : falses) {
+			assertFalse(value, PostgreSQLCopyLoader.toBoolean(value));
+		}
+		assertTrue(PostgreSQLCopyLoader.toBoolean(Boolean.TRUE));
+	}
+
+	public void testBooleanInvalid() {
+		String[] values = { "", "o", "2", "truth", "enabled" };
+		for (String value : values) {
+			try {
+				PostgreSQLCopyLoader.toBoolean(value);
+				fail(value);
+			} catch (IllegalArgumentException ex) {
+			}
+		}
+	}
+
+	public void testLong() {
+		assertEquals(32767L, PostgreSQLCopyLoader.toLong("32767", Short.MIN_VALUE, Short.MAX_VALUE));
+		assertEquals(-5L, PostgreSQLCopyLoader.toLong(" -5 ", Integer.MIN_VALUE, Integer.MAX_VALUE));
+		assertEquals(3L, PostgreSQLCopyLoader.toLong(Double.valueOf(3.0), Integer.MIN_VALUE, Integer.MAX_VALUE));
+		assertEquals(7L, PostgreSQLCopyLoader.toLong(new BigDecimal("7.00"), Integer.MIN_VALUE, Integer.MAX_VALUE));
+	}
+
+	public void testLongInvalid() {
+		Object[] values = { "32768", Integer.valueOf(40000), Double.valueOf(1.5), "1.5", "abc", Double.valueOf(Double.NaN) };
+		for (Object value : values) {
+			try {
+				PostgreSQLCopyLoader.toLong(value, Short.MIN_VALUE, Short.MAX_VALUE);
+				fail(String.valueOf(value));
+			} catch (IllegalArgumentException ex) {
+			}
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import junit.framework.TestCase;
+
+/**
+ * このクラスは、{@link QueryPlan}のテストクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public class QueryPlanTest extends TestCase {
+
+	private static final String JOIN_PLAN = "[{\"Plan\": {\"Node Type\": \"Hash Join\", \"Join Type\": \"Inner\", \"Total Cost\": 125.5,"
+			+ " \"Plans\": [{\"Node Type\": \"Seq Scan\", \"Relation Name\": \"orders\", \"Total Cost\": 80.0},"
+			+ " {\"Node Type\": \"Hash\", \"Plans\": [{\"Node Type\": \"Index Scan\", \"Relation Name\": \"users\","
+			+ " \"Index Name\": \"users_pkey\", \"Total Cost\": 8.3}]}]}}]";
+
+	private static final String ANALYZE_PLAN = "[{\"Plan\": {\"Node Type\": \"Index Only Scan\", \"Relation Name\": \"users\","
+			+ " \"Index Name\": \"users_name_idx\", \"Total Cost\": 4.2, \"Shared Hit Blocks\": 3, \"Shared Read Blocks\": 2},"
+			+ " \"Planning Time\": 0.1, \"Execution Time\": 0.25}]";
+
+	public void testSeqScan() {
+		QueryPlan plan = new QueryPlan(JOIN_PLAN);
+
+		assertTrue(plan.isSeqScan("orders"));
+		assertTrue(plan.isSeqScan("ORDERS"));
+		assertFalse(plan.isSeqScan("users"));
+		assertFalse(plan.isSeqScan("items"));
+	}
+
+	public void testIndexUsed() {
+		QueryPlan plan = new QueryPlan(JOIN_PLAN);
+
+		assertTrue(plan.isIndexUsed("users_pkey"));
+		assertTrue(plan.isIndexUsed("USERS_PKEY"));
+		assertFalse(plan.isIndexUsed("orders_pkey"));
+		assertEquals(4, plan.getNodes().size());
+	}
+
+	public void testShape() {
+		QueryPlan plan = new QueryPlan(JOIN_PLAN);
+
+		assertEquals("Hash Join (Inner)\n  Seq Scan on orders\n  Hash\n    Index Scan on users using users_pkey\n", plan.getShape());
+		assertEquals(plan.getShape(), plan.toString());
+	}
+
+	public void testShapeIgnoresCost() {
+		QueryPlan plan1 = new QueryPlan(JOIN_PLAN);
+		QueryPlan plan2 = new QueryPlan(JOIN_PLAN.replace("125.5", "999.0").replace("80.0", "1.0"));
+
+		assertEquals(plan1.getShape(), plan2.getShape());
+	}
+
+	public void testCost() {
+		QueryPlan plan = new QueryPlan(JOIN_PLAN);
+
+		assertEquals(125.5, plan.getTotalCost(), 0.0);
+		assertEquals(-1.0, plan.getExecutionTime(), 0.0);
+		assertEquals(-1L, plan.getSharedReadBlocks());
+		assertEquals(-1L, plan.getSharedHitBlocks());
+	}
+
+	public void testAnalyze() {
+		QueryPlan plan = new QueryPlan(ANALYZE_PLAN);
+
+		assertEquals(0.25, plan.getExecutionTime(), 0.0);
+		assertEquals(2L, plan.getSharedReadBlocks());
+		assertEquals(3L, plan.getSharedHitBlocks());
+		assertEquals("Index Only Scan on users using users_name_idx\n", plan.getShape());
+	}
+
+	public void testInvalid() {
+		String[] jsons = { "[]", "{}", "[{\"Plan\": 1}]", "not json" };
+		for (String json : jsons) {
+			try {
+				new QueryPlan(json);
+				fail(json);
+			} catch (IllegalArgumentException ex) {
+			}
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * このクラスは、{@link SchemaMetadata}のテストクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public class SchemaMetadataTest extends TestCase {
+
+	public void testSplitIdentifier() {
+		assertEquals(Arrays.asList("users"), SchemaMetadata.splitIdentifier("users"));
+		assertEquals(Arrays.asList("public", "Users"), SchemaMetadata.splitIdentifier("public.Users"));
+		assertEquals(Arrays.asList("\"My.Schema\"", "\"MyTable\""), SchemaMetadata.splitIdentifier("\"My.Schema\".\"MyTable\""));
+	}
+
+	public void testToCatalogNamesKeepsName() {
+		List<String> parts = SchemaMetadata.splitIdentifier("Public.\"MyTable\"");
+		assertEquals(Arrays.asList("Public", "MyTable"), SchemaMetadata.toCatalogNames(parts, false));
+	}
+
+	public void testToCatalogNamesFoldsUnquoted() {
+		List<String> parts = SchemaMetadata.splitIdentifier("Public.\"MyTable\"");
+		assertEquals(Arrays.asList("public", "MyTable"), SchemaMetadata.toCatalogNames(parts, true));
+	}
+
+	public void testToCatalogNamesUnescapesQuote() {
+		List<String> parts = SchemaMetadata.splitIdentifier("\"a\"\"b\"");
+		assertEquals(Arrays.asList("a\"b"), SchemaMetadata.toCatalogNames(parts, true));
+	}
+}
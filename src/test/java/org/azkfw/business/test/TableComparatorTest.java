@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.azkfw.datasource.Field;
+import org.azkfw.datasource.FieldType;
+
+/**
+ * このクラスは、{@link TableComparator}のテストクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public class TableComparatorTest extends TestCase {
+
+	public void testKeyContainsSeparator() {
+		SimpleDatasource.SimpleTable expected = newTable(FieldType.String, new Object[] { "a, b", "c", "x" });
+		SimpleDatasource.SimpleTable actual = newTable(FieldType.String, new Object[] { "a", "b, c", "x" });
+
+		TableComparator comparator = new TableComparator(expected, Arrays.asList("k1", "k2"), null);
+		assertFalse(comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+		assertEquals(2, comparator.getDifferenceCount());
+		assertTrue(comparator.getMessage(null).contains("Missing record."));
+	}
+
+	public void testKeyNullAndNullString() {
+		SimpleDatasource.SimpleTable expected = newTable(FieldType.String, new Object[] { null, "c", "x" });
+		SimpleDatasource.SimpleTable actual = newTable(FieldType.String, new Object[] { "null", "c", "x" });
+
+		TableComparator comparator = new TableComparator(expected, Arrays.asList("k1", "k2"), null);
+		assertFalse(comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+		assertEquals(2, comparator.getDifferenceCount());
+		assertTrue(comparator.getMessage(null).contains("Missing record."));
+	}
+
+	public void testUnorderedContainsSeparator() {
+		SimpleDatasource.SimpleTable expected = newTable(FieldType.String, new Object[] { "a, b", "c", "x" });
+		SimpleDatasource.SimpleTable actual = newTable(FieldType.String, new Object[] { "a", "b, c", "x" });
+
+		TableComparator comparator = new TableComparator(expected, null, new DatasourceAssertOption().setUnordered(true));
+		assertFalse(comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+		assertEquals(2, comparator.getDifferenceCount());
+	}
+
+	public void testUnorderedNullAndNullString() {
+		SimpleDatasource.SimpleTable expected = newTable(FieldType.String, new Object[] { null, "c", "x" });
+		SimpleDatasource.SimpleTable actual = newTable(FieldType.String, new Object[] { "null", "c", "x" });
+
+		TableComparator comparator = new TableComparator(expected, null, new DatasourceAssertOption().setUnordered(true));
+		assertFalse(comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+		assertEquals(2, comparator.getDifferenceCount());
+	}
+
+	public void testUnorderedDuplicateRecords() {
+		SimpleDatasource.SimpleTable expected = newTable(FieldType.String, new Object[] { "a", "b", "x" }, new Object[] { "a", "b", "x" });
+		SimpleDatasource.SimpleTable actual = newTable(FieldType.String, new Object[] { "a", "b", "x" });
+
+		TableComparator comparator = new TableComparator(expected, null, new DatasourceAssertOption().setUnordered(true));
+		assertFalse(comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+		assertEquals(1, comparator.getDifferenceCount());
+	}
+
+	public void testNumericToleranceByKey() {
+		SimpleDatasource.SimpleTable expected = newTable(FieldType.Double, new Object[] { "a", "b", 1.0 });
+		SimpleDatasource.SimpleTable actual = newTable(FieldType.Double, new Object[] { "a", "b", 1.004 });
+
+		DatasourceAssertOption option = new DatasourceAssertOption().setNumericTolerance(0.01);
+		TableComparator comparator = new TableComparator(expected, Arrays.asList("k1", "k2"), option);
+		assertTrue(comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+	}
+
+	public void testNumericToleranceByOrder() {
+		SimpleDatasource.SimpleTable expected = newTable(FieldType.Double, new Object[] { "a", "b", 1.0 });
+		SimpleDatasource.SimpleTable actual = newTable(FieldType.Double, new Object[] { "a", "b", 1.004 });
+
+		DatasourceAssertOption option = new DatasourceAssertOption().setNumericTolerance(0.01);
+		TableComparator comparator = new TableComparator(expected, null, option);
+		assertTrue(comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+	}
+
+	public void testNumericToleranceUnordered() {
+		SimpleDatasource.SimpleTable expected = newTable(FieldType.Double, new Object[] { "a", "b", 1.0 }, new Object[] { "a", "b", 2.0 });
+		SimpleDatasource.SimpleTable actual = newTable(FieldType.Double, new Object[] { "a", "b", 2.004 }, new Object[] { "a", "b", 0.996 });
+
+		DatasourceAssertOption option = new DatasourceAssertOption().setUnordered(true).setNumericTolerance(0.01);
+		TableComparator comparator = new TableComparator(expected, null, option);
+		assertTrue(comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+	}
+
+	public void testNumericToleranceUnorderedExceeded() {
+		SimpleDatasource.SimpleTable expected = newTable(FieldType.Double, new Object[] { "a", "b", 1.0 });
+		SimpleDatasource.SimpleTable actual = newTable(FieldType.Double, new Object[] { "a", "b", 1.1 });
+
+		DatasourceAssertOption option = new DatasourceAssertOption().setUnordered(true).setNumericTolerance(0.01);
+		TableComparator comparator = new TableComparator(expected, null, option);
+		assertFalse(comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+		assertEquals(2, comparator.getDifferenceCount());
+	}
+
+	public void testTimestampToleranceUnordered() {
+		SimpleDatasource.SimpleTable expected = newTable(FieldType.Timestamp, new Object[] { "a", "b", Timestamp.valueOf("2015-01-27 10:00:00.000") });
+		SimpleDatasource.SimpleTable actual = newTable(FieldType.Timestamp, new Object[] { "a", "b", Timestamp.valueOf("2015-01-27 10:00:00.400") });
+
+		DatasourceAssertOption option = new DatasourceAssertOption().setUnordered(true).setTimestampTolerance(500);
+		TableComparator comparator = new TableComparator(expected, null, option);
+		assertTrue(comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+	}
+
+	public void testTimestampToleranceByOrder() {
+		SimpleDatasource.SimpleTable expected = newTable(FieldType.Timestamp, new Object[] { "a", "b", Timestamp.valueOf("2015-01-27 10:00:00.000") });
+		SimpleDatasource.SimpleTable actual = newTable(FieldType.Timestamp, new Object[] { "a", "b", Timestamp.valueOf("2015-01-27 10:00:01.000") });
+
+		DatasourceAssertOption option = new DatasourceAssertOption().setTimestampTolerance(500);
+		TableComparator comparator = new TableComparator(expected, null, option);
+		assertFalse(comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+		assertEquals(1, comparator.getDifferenceCount());
+	}
+
+	public void testDateKeyFromDifferentClasses() {
+		List<Field> fields = Arrays.<Field> asList(new SimpleDatasource.SimpleField("day", "day", FieldType.Date), new SimpleDatasource.SimpleField(
+				"value", "value", FieldType.String));
+		// Excelの日付はjava.util.Date、データベースの日付はjava.sql.Date
+		SimpleDatasource.SimpleTable expected = new SimpleDatasource.SimpleTable("test", "test", fields);
+		expected.addRecord(new Object[] { new java.util.Date(java.sql.Date.valueOf("2015-01-27").getTime()), "x" });
+		SimpleDatasource.SimpleTable actual = new SimpleDatasource.SimpleTable("test", "test", fields);
+		actual.addRecord(new Object[] { java.sql.Date.valueOf("2015-01-27"), "x" });
+
+		TableComparator comparator = new TableComparator(expected, Arrays.asList("day"), null);
+		assertTrue(comparator.getMessage(null), comparator.compare(expected.getRecords(), actual.getRecords().iterator()));
+	}
+
+	public void testKeyStringByFieldType() {
+		assertEquals("2015-01-27", TableComparator.toKeyString(FieldType.Date, Timestamp.valueOf("2015-01-27 00:00:00")));
+		assertEquals("2015-01-27", TableComparator.toKeyString(FieldType.Date, "2015/01/27"));
+		assertEquals("2015-01-27 10:00:00.123456", TableComparator.toKeyString(FieldType.Timestamp, "2015-01-27 10:00:00.123456"));
+		assertEquals("2015-01-27 00:00:00.0", TableComparator.toKeyString(FieldType.Timestamp, java.sql.Date.valueOf("2015-01-27")));
+		assertEquals("10", TableComparator.toKeyString(FieldType.Long, "10.00"));
+		assertEquals("10", TableComparator.toKeyString(FieldType.Integer, Integer.valueOf(10)));
+		assertEquals("abc", TableComparator.toKeyString(FieldType.Date, "abc"));
+	}
+
+	private static SimpleDatasource.SimpleTable newTable(final FieldType valueType, final Object[]... records) {
+		List<Field> fields = Arrays.<Field> asList(new SimpleDatasource.SimpleField("k1", "k1", FieldType.String), new SimpleDatasource.SimpleField(
+				"k2", "k2", FieldType.String), new SimpleDatasource.SimpleField("value", "value", valueType));
+		SimpleDatasource.SimpleTable table = new SimpleDatasource.SimpleTable("test", "test", fields);
+		for (Object[] record : records) {
+			table.addRecord(record);
+		}
+		return table;
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.azkfw.business.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.azkfw.datasource.Field;
+import org.azkfw.datasource.Table;
+
+/**
+ * このクラスは、{@link TableDependency}のテストクラスです。
+ * 
+ * @since 1.5.0
+ * @version 1.5.0 2026/10/17
+ * @author Kawakicchi
+ */
+public class TableDependencyTest extends TestCase {
+
+	public void testNoDependencyKeepsReverseOrder() {
+		TableDependency dependency = TableDependency.empty();
+		assertEquals(Arrays.asList("c", "b", "a"), names(dependency.sort(tables("a", "b", "c"))));
+	}
+
+	public void testParentFirst() {
+		// a → b → c (親 → 子)
+		TableDependency dependency = newDependency("b", "a", "c", "b");
+		assertEquals(Arrays.asList("x", "a", "b", "c"), names(dependency.sort(tables("c", "b", "a", "x"))));
+		assertEquals(Arrays.asList("x", "a", "b", "c"), names(dependency.sort(tables("a", "b", "c", "x"))));
+	}
+
+	public void testMultipleParents() {
+		TableDependency dependency = newDependency("c", "a", "c", "b");
+		List<String> result = names(dependency.sort(tables("c", "a", "b")));
+		assertEquals(Arrays.asList("b", "a", "c"), result);
+	}
+
+	public void testCaseAndSchemaInsensitive() {
+		TableDependency dependency = newDependency("child", "parent");
+		assertEquals(Arrays.asList("public.PARENT", "Child"), names(dependency.sort(tables("public.PARENT", "Child"))));
+	}
+
+	public void testCycle() {
+		// a ⇔ b の循環参照。c は a の子
+		TableDependency dependency = newDependency("a", "b", "b", "a", "c", "a");
+		List<String> result = names(dependency.sort(tables("a", "b", "c", "d")));
+		assertEquals(4, result.size());
+		assertEquals("d", result.get(0));
+		// 登録可能なテーブルがない場合、残りの先頭(ワークブックの逆順)から追加する
+		assertEquals("c", result.get(1));
+		assertEquals("b", result.get(2));
+		assertEquals("a", result.get(3));
+	}
+
+	public void testParentIndexes() {
+		TableDependency dependency = newDependency("b", "a", "c", "b", "c", "z");
+		int[][] parents = dependency.getParentIndexes(tables("a", "b", "c"));
+		assertEquals(0, parents[0].length);
+		assertEquals(1, parents[1].length);
+		assertEquals(0, parents[1][0]);
+		assertEquals(1, parents[2].length);
+		assertEquals(1, parents[2][0]);
+
+		int[][] children = TableDependency.getChildIndexes(parents);
+		assertEquals(1, children[0].length);
+		assertEquals(1, children[0][0]);
+		assertEquals(2, children[1][0]);
+		assertEquals(0, children[2].length);
+	}
+
+	public void testLargeChain() {
+		int size = 2000;
+		Map<String, Set<String>> parents = new HashMap<String, Set<String>>();
+		List<Table> tables = new ArrayList<Table>();
+		for (int i = 0; i < size; i++) {
+			tables.add(newTable("t" + i));
+			if (0 < i) {
+				parents.put("t" + i, new HashSet<String>(Arrays.asList("t" + (i - 1))));
+			}
+		}
+		List<Table> result = new TableDependency(parents).sort(tables);
+		for (int i = 0; i < size; i++) {
+			assertEquals("t" + i, result.get(i).getName());
+		}
+	}
+
+	private static TableDependency newDependency(final String... childParents) {
+		Map<String, Set<String>> parents = new HashMap<String, Set<String>>();
+		for (int i = 0; i < childParents.length; i += 2) {
+			Set<String> set = parents.get(childParents[i]);
+			if (null == set) {
+				set = new HashSet<String>();
+				parents.put(childParents[i], set);
+			}
+			set.add(childParents[i + 1]);
+		}
+		return new TableDependency(parents);
+	}
+
+	private static List<Table> tables(final String... names) {
+		List<Table> tables = new ArrayList<Table>();
+		for (String name : names) {
+			tables.add(newTable(name));
+		}
+		return tables;
+	}
+
+	private static Table newTable(final String name) {
+		return new SimpleDatasource.SimpleTable(name, name, new ArrayList<Field>());
+	}
+
+	private static List<String> names(final List<Table> tables) {
+		List<String> names = new ArrayList<String>();
+		for (Table table : tables) {
+			names.add(table.getName());
+		}
+		return names;
+	}
+}